@@ -0,0 +1,110 @@
+package com.example.announcement.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.orm.hibernate5.HibernateTransactionManager;
+import org.springframework.orm.hibernate5.LocalSessionFactoryBean;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 效能測試使用的 Spring 容器。
+ * 以內嵌 H2（MySQL 相容模式）取代 MySQL，上傳目錄使用暫存目錄，不載入 Web 與排程相關的設定。
+ */
+@Configuration
+@EnableTransactionManagement
+@ComponentScan(basePackages = "com.example.announcement",
+        excludeFilters = @ComponentScan.Filter(type = FilterType.REGEX,
+                pattern = "com\\.example\\.announcement\\.(config|controller)\\..*"))
+public class BenchmarkContext {
+
+    private static final AtomicInteger DATABASE_SEQUENCE = new AtomicInteger();
+
+    /**
+     * 啟動容器，每個容器使用獨立的記憶體資料庫
+     *
+     * @return Spring 容器
+     */
+    public static AnnotationConfigApplicationContext start() {
+        return new AnnotationConfigApplicationContext(BenchmarkContext.class);
+    }
+
+    /**
+     * 關閉容器並刪除暫存的上傳目錄
+     *
+     * @param context Spring 容器
+     * @throws IOException 如果刪除失敗
+     */
+    public static void stop(AnnotationConfigApplicationContext context) throws IOException {
+        Path uploadDirectory = Paths.get(context.getBean("uploadDirectory", String.class));
+        context.close();
+        try (Stream<Path> paths = Files.walk(uploadDirectory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Bean
+    public String uploadDirectory() throws IOException {
+        return Files.createTempDirectory("announcement-bench-").toString();
+    }
+
+    /**
+     * 指標登錄表（未啟用切面，Service 與 DAO 不會被計時）
+     */
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    @Bean(destroyMethod = "close")
+    public DataSource dataSource() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:announcement-bench-" + DATABASE_SEQUENCE.incrementAndGet()
+                + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setMaximumPoolSize(4);
+        return new HikariDataSource(config);
+    }
+
+    @Bean
+    public LocalSessionFactoryBean sessionFactory() {
+        LocalSessionFactoryBean sessionFactory = new LocalSessionFactoryBean();
+        sessionFactory.setDataSource(dataSource());
+        sessionFactory.setPackagesToScan("com.example.announcement.model");
+
+        Properties properties = new Properties();
+        properties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("hibernate.hbm2ddl.auto", "create");
+        properties.put("hibernate.show_sql", "false");
+        sessionFactory.setHibernateProperties(properties);
+        return sessionFactory;
+    }
+
+    @Bean
+    public HibernateTransactionManager transactionManager(SessionFactory sessionFactory) {
+        HibernateTransactionManager transactionManager = new HibernateTransactionManager();
+        transactionManager.setSessionFactory(sessionFactory);
+        return transactionManager;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.announcement.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * 以位元組陣列模擬的上傳文件，供效能測試使用
+ */
+public class ByteArrayMultipartFile implements MultipartFile {
+
+    private final String originalFilename;
+
+    private final byte[] content;
+
+    public ByteArrayMultipartFile(String originalFilename, byte[] content) {
+        this.originalFilename = originalFilename;
+        this.content = content;
+    }
+
+    @Override
+    public String getName() {
+        return "uploadFile1";
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/octet-stream";
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return content.length == 0;
+    }
+
+    @Override
+    public long getSize() {
+        return content.length;
+    }
+
+    @Override
+    public byte[] getBytes() {
+        return content;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new ByteArrayInputStream(content);
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException {
+        Files.write(dest.toPath(), content);
+    }
+}
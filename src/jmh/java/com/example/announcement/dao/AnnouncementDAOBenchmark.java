@@ -0,0 +1,135 @@
+package com.example.announcement.dao;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.announcement.benchmark.BenchmarkContext;
+import com.example.announcement.dto.AnnouncementSummary;
+
+/**
+ * AnnouncementDAO 分頁與計數查詢的效能測試。
+ * 以 JDBC 批次寫入指定筆數的公告，比較 offset 分頁（第一頁與中間頁）、游標分頁（中間頁）與 COUNT 的耗時。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AnnouncementDAOBenchmark {
+
+    private static final int PAGE_SIZE = 5;
+
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    @Param({ "10000", "100000", "1000000" })
+    public int rows;
+
+    private AnnotationConfigApplicationContext context;
+
+    private AnnouncementDAO announcementDAO;
+
+    private TransactionTemplate readOnly;
+
+    private int middlePage;
+
+    private AnnouncementSummary middleRow; // 中間頁的前一筆，作為游標
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkContext.start();
+        announcementDAO = context.getBean(AnnouncementDAO.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        seed(context.getBean(DataSource.class), rows);
+
+        middlePage = rows / PAGE_SIZE / 2;
+        middleRow = readOnly.execute(status -> {
+            List<AnnouncementSummary> page = announcementDAO.getPagedAnnouncements(middlePage * PAGE_SIZE - 1, 1);
+            return page.get(0);
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        BenchmarkContext.stop(context);
+    }
+
+    @Benchmark
+    public List<AnnouncementSummary> offsetFirstPage() {
+        return readOnly.execute(status -> announcementDAO.getPagedAnnouncements(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<AnnouncementSummary> offsetMiddlePage() {
+        return readOnly.execute(status -> announcementDAO.getPagedAnnouncements(middlePage, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<AnnouncementSummary> keysetMiddlePage() {
+        return readOnly.execute(status -> announcementDAO.getAnnouncementsAfter(
+                middleRow.getPublishDate(), middleRow.getId(), PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Long count() {
+        return readOnly.execute(status -> announcementDAO.getTotalAnnouncementsCount());
+    }
+
+    /**
+     * 以 JDBC 批次寫入測試資料，發布日期分散在十年內，同一天有多筆公告
+     *
+     * @param dataSource 資料來源
+     * @param rows       筆數
+     * @throws Exception 如果寫入失敗
+     */
+    private static void seed(DataSource dataSource, int rows) throws Exception {
+        LocalDate base = LocalDate.of(2015, 1, 1);
+        String sql = "INSERT INTO announcement (id, title, publishDate, endDate, content, createdBy, uploadFile1)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(sql)) {
+            connection.setAutoCommit(false);
+            for (int i = 1; i <= rows; i++) {
+                LocalDate publishDate = base.plusDays(i % 3650);
+                statement.setInt(1, i);
+                statement.setString(2, "公告標題 " + i);
+                statement.setDate(3, Date.valueOf(publishDate));
+                statement.setDate(4, Date.valueOf(publishDate.plusDays(30)));
+                statement.setString(5, "<p>公告內容 " + i + "</p>");
+                statement.setString(6, "benchmark");
+                statement.setString(7, null);
+                statement.addBatch();
+                if (i % SEED_BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+            connection.commit();
+        }
+    }
+}
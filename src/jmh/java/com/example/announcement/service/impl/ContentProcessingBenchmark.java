@@ -0,0 +1,107 @@
+package com.example.announcement.service.impl;
+
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.Advised;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import com.example.announcement.benchmark.BenchmarkContext;
+import com.example.announcement.service.AnnouncementService;
+
+/**
+ * AnnouncementServiceImpl.processContent（HTML 清理與內嵌圖片抽出）的效能測試。
+ * cached=false 時每次呼叫的內容都不同，量測實際解析的成本；cached=true 量測重複內容命中快取的成本。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ContentProcessingBenchmark {
+
+    /**
+     * plain：純文字（約 2 KB）；html：大量標籤的 HTML（約 64 KB）；inline-images：3 張 Base64 內嵌圖片（各約 200 KB）
+     */
+    @Param({ "plain", "html", "inline-images" })
+    public String contentType;
+
+    @Param({ "false", "true" })
+    public boolean cached;
+
+    private AnnotationConfigApplicationContext context;
+
+    private AnnouncementServiceImpl service;
+
+    private String content;
+
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkContext.start();
+        Advised proxy = (Advised) context.getBean(AnnouncementService.class);
+        service = (AnnouncementServiceImpl) proxy.getTargetSource().getTarget();
+        content = buildContent(contentType);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        BenchmarkContext.stop(context);
+    }
+
+    @Benchmark
+    public String processContent() throws Exception {
+        String input = cached ? content : content + "<p>" + (sequence++) + "</p>";
+        return service.processContent(input);
+    }
+
+    private static String buildContent(String type) {
+        StringBuilder sb = new StringBuilder();
+        switch (type) {
+        case "plain":
+            while (sb.length() < 2 * 1024) {
+                sb.append("本公告內容為純文字，用於量測清理流程的基本成本。Plain text announcement body. ");
+            }
+            return sb.toString();
+        case "html":
+            int row = 0;
+            while (sb.length() < 64 * 1024) {
+                sb.append("<div class=\"section\"><h2>第 ").append(row).append(" 節</h2>")
+                        .append("<p style=\"color:red\" onclick=\"alert(1)\">段落 <strong>粗體</strong> <em>斜體</em> ")
+                        .append("<a href=\"https://example.com/").append(row).append("\">連結</a></p>")
+                        .append("<ul><li>項目一</li><li>項目二</li></ul>")
+                        .append("<table><tr><td>A</td><td>B</td></tr></table>")
+                        .append("<script>alert('xss')</script></div>");
+                row++;
+            }
+            return sb.toString();
+        case "inline-images":
+            Random random = new Random(42);
+            for (int i = 0; i < 3; i++) {
+                byte[] image = new byte[200 * 1024];
+                random.nextBytes(image);
+                sb.append("<p>圖片 ").append(i).append("</p><img src=\"data:image/jpeg;base64,")
+                        .append(Base64.getEncoder().encodeToString(image)).append("\">");
+            }
+            return sb.toString();
+        default:
+            throw new IllegalArgumentException("未知的內容類型: " + type);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.announcement.service.impl;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.Advised;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.announcement.benchmark.BenchmarkContext;
+import com.example.announcement.benchmark.ByteArrayMultipartFile;
+import com.example.announcement.service.AnnouncementService;
+import com.example.announcement.storage.AttachmentStore;
+
+/**
+ * AnnouncementServiceImpl.saveUploadFile 的吞吐量測試。
+ * 每次呼叫改寫文件開頭的位元組，確保內容雜湊不同而實際寫入磁碟；
+ * 同一交易中釋放引用，讓文件在提交後刪除，避免暫存目錄持續增長。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UploadFileBenchmark {
+
+    @Param({ "16384", "1048576", "8388608" })
+    public int fileSize;
+
+    private AnnotationConfigApplicationContext context;
+
+    private AnnouncementServiceImpl service;
+
+    private AttachmentStore attachmentStore;
+
+    private TransactionTemplate transactionTemplate;
+
+    private byte[] content;
+
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkContext.start();
+        Advised proxy = (Advised) context.getBean(AnnouncementService.class);
+        service = (AnnouncementServiceImpl) proxy.getTargetSource().getTarget();
+        attachmentStore = context.getBean(AttachmentStore.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        content = new byte[fileSize];
+        new Random(42).nextBytes(content);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        BenchmarkContext.stop(context);
+    }
+
+    @Benchmark
+    public String saveUploadFile() {
+        long value = sequence++;
+        for (int i = 0; i < 8; i++) {
+            content[i] = (byte) (value >>> (i * 8));
+        }
+        ByteArrayMultipartFile file = new ByteArrayMultipartFile("attachment.pdf", content);
+        return transactionTemplate.execute(status -> {
+            try {
+                String key = service.saveUploadFile(file);
+                attachmentStore.release(key);
+                return key;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
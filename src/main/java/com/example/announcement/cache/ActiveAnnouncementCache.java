@@ -0,0 +1,195 @@
+package com.example.announcement.cache;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.announcement.dao.AnnouncementDAO;
+import com.example.announcement.datasource.ReadYourWrites;
+import com.example.announcement.dto.AnnouncementSummary;
+import com.example.announcement.event.AnnouncementChangedEvent;
+
+/**
+ * ActiveAnnouncementCache 在記憶體中保存尚未截止的公告（包含尚未發布的公告），讓有效公告列表不需要查詢資料庫。
+ * 公告按發布日期降序排列，查詢時以二分搜尋跳過尚未發布的公告，再排除已截止的公告；
+ * 未來發布的公告到了發布日期會自動出現，不需要重新載入。
+ * 每天午夜與公告異動提交後重新載入，移除已截止的公告。
+ */
+@Component
+public class ActiveAnnouncementCache implements SmartInitializingSingleton {
+
+    /**
+     * 與列表頁相同的排序：(publishDate, id) 降序
+     */
+    private static final Comparator<AnnouncementSummary> NEWEST_FIRST = Comparator
+            .comparing(AnnouncementSummary::getPublishDate, Comparator.reverseOrder())
+            .thenComparing(AnnouncementSummary::getId, Comparator.reverseOrder());
+
+    @Autowired
+    private AnnouncementDAO announcementDAO;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReadYourWrites readYourWrites; // 載入快取時讀取主庫
+
+    private volatile Snapshot snapshot; // 尚未截止的公告，null 表示尚未載入
+
+    private volatile ActiveView view; // 最近一次計算的有效公告列表
+
+    /**
+     * 啟動時預先載入
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            // 資料庫暫時無法連線時，留待第一次讀取或午夜排程再載入
+            System.err.println("載入有效公告失敗: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 獲取指定日期有效的公告（publishDate <= date <= endDate），按 (publishDate, id) 降序排列
+     *
+     * @param date 日期
+     * @return 有效公告摘要列表（不可修改）
+     */
+    public List<AnnouncementSummary> getActive(LocalDate date) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            current = reload();
+        }
+        if (date.isBefore(current.loadedDate)) {
+            // 快照不包含載入日之前已截止的公告，直接查詢資料庫
+            return Collections.unmodifiableList(query(status -> announcementDAO.getActiveAnnouncements(date)));
+        }
+
+        ActiveView cached = view;
+        if (cached != null && cached.snapshot == current && cached.date.equals(date)) {
+            return cached.items; // 同一天、同一份快照，直接使用上次的結果
+        }
+
+        List<AnnouncementSummary> items = new ArrayList<>();
+        for (int i = firstPublishedOnOrBefore(current.items, date); i < current.items.size(); i++) {
+            AnnouncementSummary announcement = current.items.get(i);
+            if (!announcement.getEndDate().isBefore(date)) {
+                items.add(announcement);
+            }
+        }
+        List<AnnouncementSummary> result = Collections.unmodifiableList(items);
+        view = new ActiveView(current, date, result);
+        return result;
+    }
+
+    /**
+     * 公告異動提交後重新載入，新增、修改、刪除都可能改變有效公告
+     *
+     * @param event 公告異動事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnnouncementChanged(AnnouncementChangedEvent event) {
+        reload();
+    }
+
+    /**
+     * 每天午夜重新載入，移除前一天截止的公告
+     */
+    @Scheduled(cron = "${cache.active.refresh-cron:0 0 0 * * *}")
+    public void refresh() {
+        reload();
+    }
+
+    /**
+     * 從資料庫載入截止日期在今天或之後的公告
+     * 以同步方法避免較早開始的載入覆蓋較新的結果
+     *
+     * @return 新的快照
+     */
+    private synchronized Snapshot reload() {
+        LocalDate today = LocalDate.now();
+        List<AnnouncementSummary> items = new ArrayList<>(
+                query(status -> announcementDAO.getAnnouncementsEndingOnOrAfter(today)));
+        items.sort(NEWEST_FIRST);
+        Snapshot loaded = new Snapshot(today, items);
+        snapshot = loaded;
+        return loaded;
+    }
+
+    /**
+     * 以新的唯讀交易查詢，公告異動提交後原交易的資源仍綁定在執行緒上
+     * 快取由所有請求共用，讀取主庫，不使用可能落後的副本
+     */
+    private List<AnnouncementSummary> query(TransactionCallback<List<AnnouncementSummary>> callback) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(true);
+        List<AnnouncementSummary> result = readYourWrites.onPrimary(() -> template.execute(callback));
+        return result == null ? Collections.emptyList() : result;
+    }
+
+    /**
+     * 二分搜尋第一筆發布日期在指定日期當天或之前的公告（列表按發布日期降序排列）
+     *
+     * @param items 公告摘要列表
+     * @param date  日期
+     * @return 索引位置，沒有符合的公告時返回列表大小
+     */
+    private static int firstPublishedOnOrBefore(List<AnnouncementSummary> items, LocalDate date) {
+        int low = 0;
+        int high = items.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (items.get(mid).getPublishDate().isAfter(date)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 某一天載入的尚未截止公告，載入後不再修改
+     */
+    private static class Snapshot {
+
+        private final LocalDate loadedDate;
+
+        private final List<AnnouncementSummary> items; // 按 (publishDate, id) 降序
+
+        Snapshot(LocalDate loadedDate, List<AnnouncementSummary> items) {
+            this.loadedDate = loadedDate;
+            this.items = items;
+        }
+    }
+
+    private static class ActiveView {
+
+        private final Snapshot snapshot;
+
+        private final LocalDate date;
+
+        private final List<AnnouncementSummary> items;
+
+        ActiveView(Snapshot snapshot, LocalDate date, List<AnnouncementSummary> items) {
+            this.snapshot = snapshot;
+            this.date = date;
+            this.items = items;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.announcement.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.announcement.dao.AnnouncementDAO;
+import com.example.announcement.datasource.ReadYourWrites;
+import com.example.announcement.event.AnnouncementChangedEvent;
+
+/**
+ * AnnouncementCountCache 在記憶體中保存公告總數量，避免列表頁每次都執行 COUNT 查詢。
+ * 新增與刪除公告提交後增量更新，並定期與資料庫比對以修正誤差。
+ */
+@Component
+public class AnnouncementCountCache implements SmartInitializingSingleton {
+
+    private static final long UNKNOWN = -1L;
+
+    @Autowired
+    private AnnouncementDAO announcementDAO;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReadYourWrites readYourWrites; // 重新載入時讀取主庫
+
+    private final AtomicLong count = new AtomicLong(UNKNOWN); // 公告總數量，-1 表示尚未載入
+
+    private final AtomicLong modifications = new AtomicLong(); // 增量更新次數，用於判斷比對期間是否有寫入
+
+    /**
+     * 啟動時預先載入總數量
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            // 資料庫暫時無法連線時，留待第一次讀取或定期比對再載入
+            System.err.println("載入公告總數量失敗: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 獲取公告總數量
+     *
+     * @return 公告總數量
+     */
+    public long get() {
+        long current = count.get();
+        if (current == UNKNOWN) {
+            current = reload();
+        }
+        return current;
+    }
+
+    /**
+     * 公告新增或刪除提交後，增量更新總數量
+     *
+     * @param event 公告異動事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnnouncementChanged(AnnouncementChangedEvent event) {
+        int delta;
+        switch (event.getType()) {
+        case CREATED:
+            delta = event.getIds().size();
+            break;
+        case DELETED:
+            delta = -event.getIds().size();
+            break;
+        default:
+            return; // 修改不影響總數量
+        }
+        modifications.incrementAndGet();
+        count.getAndUpdate(current -> current == UNKNOWN ? UNKNOWN : Math.max(0, current + delta));
+    }
+
+    /**
+     * 定期與資料庫比對，修正增量更新遺漏造成的誤差（例如直接修改資料庫）
+     */
+    @Scheduled(initialDelayString = "${cache.count.reconcile-interval:300000}",
+            fixedDelayString = "${cache.count.reconcile-interval:300000}")
+    public void reconcile() {
+        long cached = count.get();
+        long actual = reload();
+        if (cached != UNKNOWN && cached != actual) {
+            System.out.println("公告總數量已修正：" + cached + " -> " + actual);
+        }
+    }
+
+    /**
+     * 從資料庫重新載入總數量
+     * 查詢期間若有增量更新，查詢結果可能已過時，此時保留增量更新後的值
+     * 讀取主庫，副本落後時的總數量會覆蓋正確的值
+     *
+     * @return 最新的公告總數量
+     */
+    private long reload() {
+        long before = modifications.get();
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        Long actual = readYourWrites.onPrimary(
+                () -> template.execute(status -> announcementDAO.getTotalAnnouncementsCount()));
+        long value = actual == null ? 0 : actual;
+        if (modifications.get() == before) {
+            count.set(value);
+        } else {
+            count.compareAndSet(UNKNOWN, value);
+        }
+        return count.get();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.announcement.cache;
+
+import java.io.Serializable;
+
+import org.hibernate.cache.spi.entry.CacheEntry;
+import org.hibernate.cache.spi.support.AbstractReadWriteAccess;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+
+/**
+ * CacheEntryWeigher 估算 Hibernate 二級快取實體的記憶體大小，讓 Caffeine 以總大小而不是筆數限制快取區域。
+ * 公告內容（@Lob）長度差異很大，只限制筆數時少數大型公告就可能佔用大量 heap。
+ * 在 application.conf 的 maximum.weigher 中指定，由 Caffeine 以無參構造函數建立。
+ */
+public class CacheEntryWeigher implements Weigher<Object, Object> {
+
+    /**
+     * 每筆快取的固定開銷（鍵、快取項目與欄位陣列的物件標頭），以位元組估算
+     */
+    private static final int ENTRY_OVERHEAD = 256;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        Object entry = value instanceof AbstractReadWriteAccess.Item
+                ? ((AbstractReadWriteAccess.Item) value).getValue()
+                : value;
+        long weight = ENTRY_OVERHEAD;
+        if (entry instanceof CacheEntry) {
+            for (Serializable field : ((CacheEntry) entry).getDisassembledState()) {
+                if (field instanceof String) {
+                    weight += 2L * ((String) field).length(); // 以 UTF-16 估算，中文內容與實際大小相同
+                } else if (field != null) {
+                    weight += 16;
+                }
+            }
+        }
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.announcement.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.announcement.event.AnnouncementChangedEvent;
+
+/**
+ * RenderedPageCache 快取已渲染的公告列表頁 HTML，並以版本號產生 ETag。
+ * 公告新增、修改、刪除提交後版本號加一並清空快取；瀏覽器與反向代理帶著相同 ETag 重新驗證時，
+ * 控制器可直接回應 304，不需要查詢資料庫或渲染模板。
+ */
+@Component
+public class RenderedPageCache {
+
+    /**
+     * 啟動時間，加入 ETag 避免重新啟動後版本號從 0 開始，與重新啟動前的 ETag 重複
+     */
+    private final String instance = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong version = new AtomicLong(); // 公告資料的版本號
+
+    private final Map<String, CachedPage> pages; // 頁面鍵 -> 已渲染的 HTML（LRU）
+
+    private final AtomicLong hits = new AtomicLong(); // 快取命中次數
+    private final AtomicLong misses = new AtomicLong(); // 快取未命中次數（需要渲染）
+
+    public RenderedPageCache(@Value("${cache.list-page.max-entries:64}") int maxEntries) {
+        this.pages = new LinkedHashMap<String, CachedPage>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedPage> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 獲取目前的版本號，渲染頁面前先取得，寫入快取時一併傳入
+     *
+     * @return 版本號
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * 以版本號產生 ETag
+     *
+     * @param version 版本號
+     * @return ETag（含雙引號）
+     */
+    public String etag(long version) {
+        return "\"list-" + instance + "-" + version + "\"";
+    }
+
+    /**
+     * 獲取已渲染的頁面
+     *
+     * @param key     頁面鍵
+     * @param version 版本號
+     * @return 已渲染的 HTML，沒有快取或版本已過時時返回 null
+     */
+    public String get(String key, long version) {
+        CachedPage page;
+        synchronized (pages) {
+            page = pages.get(key);
+        }
+        if (page != null && page.version == version) {
+            hits.incrementAndGet();
+            return page.html;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 保存已渲染的頁面；渲染期間若有公告異動，頁面內容可能已過時，此時不保存
+     *
+     * @param key     頁面鍵
+     * @param version 渲染前取得的版本號
+     * @param html    已渲染的 HTML
+     */
+    public void put(String key, long version, String html) {
+        synchronized (pages) {
+            if (this.version.get() == version) {
+                pages.put(key, new CachedPage(version, html));
+            }
+        }
+    }
+
+    /**
+     * 公告異動提交後使所有已渲染的頁面失效
+     *
+     * @param event 公告異動事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnnouncementChanged(AnnouncementChangedEvent event) {
+        synchronized (pages) {
+            version.incrementAndGet();
+            pages.clear();
+        }
+    }
+
+    /**
+     * 以 key=value 文字輸出快取的統計數據
+     *
+     * @return 統計數據
+     */
+    public String report() {
+        int size;
+        synchronized (pages) {
+            size = pages.size();
+        }
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("version=").append(version.get()).append('\n');
+        sb.append("entries=").append(size).append('\n');
+        sb.append("hits=").append(hitCount).append('\n');
+        sb.append("misses=").append(missCount).append('\n');
+        sb.append("hitRatio=").append(total == 0 ? 0 : (double) hitCount / total).append('\n');
+        return sb.toString();
+    }
+
+    private static class CachedPage {
+
+        private final long version;
+
+        private final String html;
+
+        CachedPage(long version, String html) {
+            this.version = version;
+            this.html = html;
+        }
+    }
+}
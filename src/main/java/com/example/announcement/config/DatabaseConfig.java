@@ -7,29 +7,168 @@ import javax.servlet.ServletContextEvent;
 import javax.servlet.ServletContextListener;
 import javax.sql.DataSource;
 
+import org.flywaydb.core.Flyway;
 import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.orm.hibernate5.HibernateTransactionManager;
 import org.springframework.orm.hibernate5.LocalSessionFactoryBean;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import com.example.announcement.datasource.ReadYourWrites;
+import com.example.announcement.datasource.ReplicaRoutingDataSource;
+import com.example.announcement.monitor.ConnectionPoolMetrics;
+import com.example.announcement.monitor.SlowQueryListener;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
 @Configuration // 表示這是一個配置類，等同於 Spring 的 XML 配置文件。Spring 容器會在啟動時加載這個類，並應用其中的配置。
 @EnableTransactionManagement // 啟用注解驅動的事務管理功能。這樣可以使用 @Transactional 注解來管理數據庫事務。
+@PropertySource("classpath:database.properties") // 載入資料庫與連線池設定
 public class DatabaseConfig {
 
-    @Bean
+    @Autowired
+    private Environment env;
+
+    @Autowired
+    private ConnectionPoolMetrics connectionPoolMetrics; // 連線池統計數據
+
+    @Autowired
+    private SlowQueryListener slowQueryListener; // 慢查詢與抽樣查詢日誌
+
+    @Autowired
+    private ReadYourWrites readYourWrites; // 寫入後讀取主庫的期限
+
+    /**
+     * 應用程式使用的 DataSource。
+     * 設定了副本（db.replica.url）時，唯讀交易讀取副本、其他連線使用主庫；未設定時全部使用主庫。
+     * 最外層包裝 datasource-proxy，由 SlowQueryListener 記錄慢查詢與抽樣查詢。
+     *
+     * @return DataSource
+     */
+    @Bean(destroyMethod = "") // 連線池由 primaryDataSource 與 replicaDataSource 關閉
+    @Primary
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
-        dataSource.setUrl("jdbc:mysql://localhost:3306/announcement?useUnicode=true&characterEncoding=UTF-8&serverTimezone=UTC");
-        dataSource.setUsername("root");
-        dataSource.setPassword("springboot");
-        return dataSource;
+        DataSource target = readYourWrites.isEnabled()
+                ? new LazyConnectionDataSourceProxy(routingDataSource()) // 第一條 SQL 時才依交易的唯讀標記取得連線
+                : primaryDataSource();
+        return ProxyDataSourceBuilder.create(target)
+                .name(env.getProperty("db.pool.name", "announcement-pool"))
+                .listener(slowQueryListener)
+                .build();
     }
 
+    /**
+     * 主庫連線池，取代每次交易都重新建立連線的 DriverManagerDataSource
+     *
+     * @return 主庫連線池
+     */
+    @Bean(destroyMethod = "close")
+    public HikariDataSource primaryDataSource() {
+        HikariConfig config = poolConfig("db", env.getProperty("db.pool.name", "announcement-pool"));
+        // 記錄使用中、閒置連線數與取得連線的等待時間
+        config.setMetricsTrackerFactory(connectionPoolMetrics);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * 副本連線池，帳號、密碼與連線池設定未指定時沿用主庫的設定（db.replica.pool.* 對應 db.pool.*）
+     *
+     * @return 副本連線池，未設定 db.replica.url 時返回 null
+     */
+    @Bean(destroyMethod = "close")
+    public HikariDataSource replicaDataSource() {
+        if (!readYourWrites.isEnabled()) {
+            return null;
+        }
+        HikariConfig config = poolConfig("db.replica", env.getProperty("db.pool.name", "announcement-pool") + "-replica");
+        config.setMetricsTrackerFactory(connectionPoolMetrics); // 與主庫分開記錄，以連線池名稱區分
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * 讀寫分離：唯讀交易使用副本連線池，其他連線使用主庫
+     *
+     * @return 讀寫分離的 DataSource，未設定副本時不使用
+     */
     @Bean
+    public ReplicaRoutingDataSource routingDataSource() {
+        return new ReplicaRoutingDataSource(primaryDataSource(), replicaDataSource(), readYourWrites);
+    }
+
+    /**
+     * 依設定前綴建立連線池設定，副本未指定的項目沿用主庫（db.*）的設定
+     *
+     * @param prefix   設定前綴（db 或 db.replica）
+     * @param poolName 連線池名稱
+     * @return 連線池設定
+     */
+    private HikariConfig poolConfig(String prefix, String poolName) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setDriverClassName(property(prefix, "driver", "com.mysql.cj.jdbc.Driver"));
+        config.setJdbcUrl(property(prefix, "url", null));
+        config.setUsername(property(prefix, "username", null));
+        config.setPassword(property(prefix, "password", null));
+
+        // 連線池大小與逾時設定
+        config.setMinimumIdle(Integer.parseInt(property(prefix, "pool.minimum-idle", "2")));
+        config.setMaximumPoolSize(Integer.parseInt(property(prefix, "pool.maximum-pool-size", "10")));
+        config.setConnectionTimeout(Long.parseLong(property(prefix, "pool.connection-timeout", "3000")));
+        config.setIdleTimeout(Long.parseLong(property(prefix, "pool.idle-timeout", "600000")));
+        config.setMaxLifetime(Long.parseLong(property(prefix, "pool.max-lifetime", "1800000")));
+        config.setLeakDetectionThreshold(Long.parseLong(property(prefix, "pool.leak-detection-threshold", "0")));
+        config.setRegisterMbeans(Boolean.parseBoolean(property(prefix, "pool.register-mbeans", "false")));
+
+        // 預編譯語句快取，避免相同 SQL 重複解析
+        config.addDataSourceProperty("cachePrepStmts", env.getProperty("db.statement-cache.enabled", "true"));
+        config.addDataSourceProperty("prepStmtCacheSize", env.getProperty("db.statement-cache.size", "250"));
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", env.getProperty("db.statement-cache.sql-limit", "2048"));
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+
+        // 將批次 INSERT 改寫為多值 INSERT，減少往返次數
+        config.addDataSourceProperty("rewriteBatchedStatements", env.getProperty("db.batch.rewrite-statements", "true"));
+        return config;
+    }
+
+    /**
+     * 讀取 prefix.key，未設定時讀取主庫的 db.key
+     */
+    private String property(String prefix, String key, String defaultValue) {
+        String value = env.getProperty(prefix + "." + key);
+        if (value == null) {
+            value = defaultValue == null ? env.getRequiredProperty("db." + key) : env.getProperty("db." + key, defaultValue);
+        }
+        return value;
+    }
+
+    /**
+     * 啟動時以 Flyway 執行 db/migration 下尚未執行的結構遷移，每個版本只執行一次。
+     * 既有資料庫（由原版 hbm2ddl update 建立、沒有 Flyway 紀錄表）第一次遷移時以版本 1（原始表結構）作為基準，
+     * 再以 V2 之後的腳本補上索引、新表與欄位。腳本以 MySQL 為目標（ENGINE、LONGTEXT 等語法）。
+     *
+     * @return Flyway
+     */
+    @Bean(initMethod = "migrate")
+    public Flyway flyway() {
+        return Flyway.configure()
+                .dataSource(primaryDataSource()) // 結構遷移只在主庫執行，由資料庫複製到副本
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(env.getProperty("db.migration.baseline-on-migrate", Boolean.class, true))
+                .baselineVersion("1")
+                .load();
+    }
+
+    @Bean
+    @DependsOn("flyway") // 結構遷移完成後才建立 SessionFactory
     public LocalSessionFactoryBean sessionFactory() {
         LocalSessionFactoryBean sessionFactory = new LocalSessionFactoryBean();
         sessionFactory.setDataSource(dataSource());
@@ -41,10 +180,32 @@ public class DatabaseConfig {
     private Properties hibernateProperties() {
         Properties properties = new Properties();
         properties.put("hibernate.dialect", "org.hibernate.dialect.MySQL8Dialect");
-        properties.put("hibernate.show_sql", "true");
-        properties.put("hibernate.format_sql", "true");
-        properties.put("hibernate.hbm2ddl.auto", "update"); // 自動更新表結構
+        // 每條 SQL 同步輸出到主控台，只在除錯時開啟；平時由 SlowQueryListener 記錄慢查詢
+        String sqlDebug = env.getProperty("db.sql.debug", "false");
+        properties.put("hibernate.show_sql", sqlDebug);
+        properties.put("hibernate.format_sql", sqlDebug);
+        properties.put("hibernate.hbm2ddl.auto", "none"); // 表結構由 Flyway 遷移管理，啟動時不比對資料庫結構
         properties.put("hibernate.connection.characterEncoding", "UTF-8");
+
+        // JDBC 批次寫入，依實體排序 INSERT / UPDATE 讓相同語句可以合併成同一批
+        properties.put("hibernate.jdbc.batch_size", env.getProperty("db.batch.size", "50"));
+        properties.put("hibernate.order_inserts", "true");
+        properties.put("hibernate.order_updates", "true");
+        properties.put("hibernate.jdbc.batch_versioned_data", "true");
+
+        // 二級快取與查詢快取（Caffeine JCache，大小與過期時間設定在 application.conf）
+        boolean cacheEnabled = env.getProperty("db.cache.enabled", Boolean.class, true);
+        properties.put("hibernate.cache.use_second_level_cache", String.valueOf(cacheEnabled));
+        properties.put("hibernate.cache.use_query_cache", String.valueOf(cacheEnabled));
+        if (cacheEnabled) {
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.provider",
+                    "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider");
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "fail"); // 區域必須在 application.conf 中設定大小上限
+        }
+        // 統計快取命中率，由 /monitor/hibernate 輸出
+        properties.put("hibernate.generate_statistics", env.getProperty("db.cache.statistics", "true"));
+        properties.put("hibernate.session.events.log", "false"); // 不在每個 Session 結束時輸出統計日誌
         return properties;
     }
 
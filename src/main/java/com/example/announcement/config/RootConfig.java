@@ -0,0 +1,18 @@
+package com.example.announcement.config;
+
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+
+@Configuration // 表示這是一個配置類，由 ContextLoaderListener 載入為根容器，資料庫、快取、排程等元件只在這裡建立一次。
+@ComponentScan(basePackages = "com.example.announcement", // 掃描控制器以外的所有元件（Service、DAO、快取、監控、其他配置類）
+        excludeFilters = {
+                @ComponentScan.Filter(type = FilterType.ANNOTATION, classes = { Controller.class, ControllerAdvice.class }), // 控制器由 WebConfig 載入到 DispatcherServlet 容器
+                @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = WebConfig.class) // Spring MVC 的配置只屬於 DispatcherServlet 容器
+        })
+@PropertySource("classpath:application.properties") // 載入應用程式設定（快取、排程等），DispatcherServlet 容器繼承根容器的設定
+public class RootConfig {
+}
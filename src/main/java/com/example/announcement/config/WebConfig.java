@@ -1,10 +1,18 @@
 package com.example.announcement.config;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.format.FormatterRegistry;
 import org.springframework.format.datetime.standard.DateTimeFormatterRegistrar;
+import org.springframework.http.CacheControl;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.multipart.commons.CommonsMultipartResolver;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
@@ -14,12 +22,21 @@ import org.thymeleaf.spring5.SpringTemplateEngine;
 import org.thymeleaf.spring5.view.ThymeleafViewResolver;
 import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
 
+import com.example.announcement.storage.InlineImageStore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
 
 @Configuration // 表示這是一個配置類，等同於 Spring 的 XML 配置文件，Spring 容器會在啟動時加載這個類，並應用其中的配置。
 @EnableWebMvc // 啟用 Spring MVC 的配置，將其用作 Web 應用程序的支持。包括註冊 Spring MVC 的核心組件（例如 DispatcherServlet）。
-@ComponentScan(basePackages = "com.example.announcement") // 指定要掃描的基礎包，Spring 會自動檢測並註冊該包中的所有 @Controller、@Service、@Repository 等註解的類。
+@ComponentScan(basePackages = "com.example.announcement.controller") // 只掃描控制器，Service、DAO 等元件由根容器（RootConfig）建立，避免重複建立 SessionFactory 與排程任務。
 public class WebConfig implements WebMvcConfigurer {
 
+    @Autowired
+    private InlineImageStore inlineImageStore; // 內嵌圖片的保存位置
+
     @Bean
     public ClassLoaderTemplateResolver templateResolver() {
         ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
@@ -50,8 +67,30 @@ public class WebConfig implements WebMvcConfigurer {
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("/**") // 靜態資源的 URL 映射
                 .addResourceLocations("classpath:/static/"); // 靜態資源的物理路徑
+
+        // 公告內容中的內嵌圖片：文件以內容雜湊命名，內容不會改變，可讓瀏覽器長期快取
+        registry.addResourceHandler(InlineImageStore.URL_PATH + "**")
+                .addResourceLocations(inlineImageStore.getDirectory().toUri().toString())
+                .setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic());
     }
     
+    /**
+     * /api 的 JSON 格式：日期輸出為 yyyy-MM-dd，不輸出 null 欄位，未指定欄位過濾器時輸出所有欄位
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json() // 自動註冊 JavaTimeModule
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .filters(new SimpleFilterProvider().setFailOnUnknownId(false))
+                .build();
+        for (HttpMessageConverter<?> converter : converters) {
+            if (converter instanceof MappingJackson2HttpMessageConverter) {
+                ((MappingJackson2HttpMessageConverter) converter).setObjectMapper(objectMapper);
+            }
+        }
+    }
+
     @Override
     public void addFormatters(FormatterRegistry registry) {
         // 創建並配置 DateTimeFormatterRegistrar
@@ -0,0 +1,111 @@
+package com.example.announcement.content;
+
+import java.io.IOException;
+import java.util.Base64;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.announcement.storage.InlineImageStore;
+
+/**
+ * ContentProcessor 負責保存公告內容前的處理：清理 HTML，並將 Base64 內嵌圖片抽出為獨立文件。
+ * 不持有可變狀態，可由多個執行緒同時呼叫（批次匯入時平行處理）。
+ */
+@Component
+public class ContentProcessor {
+
+    @Autowired
+    private HtmlSanitizer htmlSanitizer; // HTML 清理器
+
+    @Autowired
+    private InlineImageStore inlineImageStore; // 內嵌圖片的保存位置
+
+    /**
+     * 清理公告內容，並抽出 Base64 內嵌圖片
+     *
+     * @param content 原始公告內容
+     * @return 處理後的公告內容
+     * @throws IOException 如果圖片保存失敗
+     */
+    public String process(String content) throws IOException {
+        if (content == null || content.isEmpty()) {
+            return content; // 如果內容為空，直接返回
+        }
+
+        // 使用共用的 HtmlSanitizer 清理 HTML，避免 XSS 攻擊（相同內容直接使用快取結果）
+        String cleaned = htmlSanitizer.sanitize(content);
+
+        // 將 Base64 內嵌圖片抽出為獨立文件
+        String processed = extractInlineImages(cleaned);
+
+        // 以最終內容為鍵快取：編輯表單送回的是抽出圖片後的內容，不是清理前的 data URI
+        htmlSanitizer.cacheProcessed(processed);
+        return processed;
+    }
+
+    /**
+     * 將 img 標籤中的 data URI 圖片解碼後保存為文件，並將 src 改寫為可快取的 URL
+     * 無法解碼或不支援的 data URI 會被移除，避免大量 Base64 文字留在公告內容中
+     *
+     * @param content 已清理的公告內容
+     * @return 改寫後的公告內容
+     * @throws IOException 如果圖片保存失敗
+     */
+    private String extractInlineImages(String content) throws IOException {
+        if (!content.contains("data:")) {
+            return content; // 沒有內嵌圖片，不需要重新解析
+        }
+
+        Document document = Jsoup.parseBodyFragment(content);
+        boolean changed = false;
+        for (Element img : document.select("img[src^=data:]")) {
+            String src = img.attr("src");
+            String fileName = storeDataUri(src);
+            if (fileName != null) {
+                img.attr("src", inlineImageStore.urlFor(fileName));
+            } else {
+                img.removeAttr("src");
+            }
+            changed = true;
+        }
+        return changed ? document.body().html() : content;
+    }
+
+    /**
+     * 解碼並保存單一 data URI（格式：data:[MIME 類型];base64,[內容]）
+     *
+     * @param dataUri data URI
+     * @return 保存的文件名稱，無法處理時返回 null
+     * @throws IOException 如果圖片保存失敗
+     */
+    private String storeDataUri(String dataUri) throws IOException {
+        int comma = dataUri.indexOf(',');
+        if (comma < 0) {
+            return null;
+        }
+
+        String header = dataUri.substring("data:".length(), comma); // 例如 image/png;base64
+        if (!header.toLowerCase().endsWith(";base64")) {
+            return null;
+        }
+        String mimeType = header.substring(0, header.length() - ";base64".length());
+        if (!inlineImageStore.supports(mimeType)) {
+            return null;
+        }
+
+        byte[] data;
+        try {
+            data = Base64.getMimeDecoder().decode(dataUri.substring(comma + 1));
+        } catch (IllegalArgumentException e) {
+            return null; // Base64 格式錯誤
+        }
+        if (data.length == 0) {
+            return null;
+        }
+        return inlineImageStore.store(mimeType, data);
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.announcement.content;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.safety.Cleaner;
+import org.jsoup.safety.Safelist;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.announcement.storage.ContentHash;
+
+/**
+ * HtmlSanitizer 清理公告內容中的 HTML，避免 XSS 攻擊。
+ * Safelist 與 Cleaner 只在啟動時建立一次，之後不再修改，可由多個執行緒共用。
+ * 以內容的 SHA-256 為鍵快取清理結果，相同內容不需要重新解析；
+ * 保存後的最終內容也一併快取，編輯時未修改的內容不需要重新解析。
+ */
+@Component
+public class HtmlSanitizer {
+
+    /**
+     * 清理 HTML 時用於解析相對路徑的基準 URI，只用來判斷協定，不會寫入內容
+     */
+    private static final String BASE_URI = "http://localhost/";
+
+    /**
+     * 允許的標籤與屬性，建立後不再修改
+     */
+    private static final Safelist SAFELIST = Safelist.relaxed()
+            .addTags("p", "a", "strong", "em", "ul", "ol", "li", "span", "div", "img") // 允許的標籤
+            .addAttributes("a", "href") // 允許 a 標籤的 href 屬性
+            .addAttributes("img", "src", "alt", "title") // 允許 img 標籤的 src、alt、title 屬性
+            .addProtocols("img", "src", "http", "https", "data") // 限制 img 的 src 屬性為 http、https 或 data
+            .preserveRelativeLinks(true); // 保留站內相對路徑（已抽出的內嵌圖片 URL）
+
+    private final Cleaner cleaner = new Cleaner(SAFELIST);
+
+    private final Map<String, String> cache; // 內容雜湊 -> 清理結果（LRU）
+
+    private final int maxCachedLength; // 超過此長度的內容不快取，避免佔用過多記憶體
+
+    private final AtomicLong sanitizeCount = new AtomicLong(); // 實際解析次數
+    private final AtomicLong sanitizeNanos = new AtomicLong(); // 實際解析的累計時間
+    private final AtomicLong sanitizeBytes = new AtomicLong(); // 實際解析的累計內容大小（UTF-8 位元組）
+    private final AtomicLong cacheHits = new AtomicLong(); // 快取命中次數
+
+    public HtmlSanitizer(@Value("${sanitizer.cache.max-entries:256}") int maxEntries,
+            @Value("${sanitizer.cache.max-content-length:262144}") int maxCachedLength) {
+        this.maxCachedLength = maxCachedLength;
+        this.cache = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 清理 HTML，移除不安全的標籤與屬性
+     *
+     * @param content 公告內容
+     * @return 清理後的安全內容
+     */
+    public String sanitize(String content) {
+        if (content == null || content.isEmpty()) {
+            return content;
+        }
+
+        String key = ContentHash.sha256Hex(content);
+        String cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null) {
+            cacheHits.incrementAndGet();
+            return cached;
+        }
+
+        long start = System.nanoTime();
+        Document dirty = Jsoup.parseBodyFragment(content, BASE_URI);
+        String cleaned = cleaner.clean(dirty).body().html();
+        long elapsed = System.nanoTime() - start;
+
+        sanitizeCount.incrementAndGet();
+        sanitizeNanos.addAndGet(elapsed);
+        sanitizeBytes.addAndGet(utf8Length(content));
+
+        if (content.length() <= maxCachedLength && cleaned.length() <= maxCachedLength) {
+            synchronized (cache) {
+                cache.put(key, cleaned);
+            }
+        }
+        return cleaned;
+    }
+
+    /**
+     * 將已保存的公告內容（清理並抽出內嵌圖片後的結果）記為安全內容，
+     * 編輯表單送回未修改的內容時直接命中快取，不需要重新解析
+     *
+     * @param content 由 ContentProcessor 處理後的內容
+     */
+    public void cacheProcessed(String content) {
+        if (content == null || content.isEmpty() || content.length() > maxCachedLength) {
+            return;
+        }
+        String key = ContentHash.sha256Hex(content);
+        synchronized (cache) {
+            cache.put(key, content);
+        }
+    }
+
+    /**
+     * 輸出清理統計數據（純文字，每行一個 key=value）
+     *
+     * @return 統計數據文字
+     */
+    public String report() {
+        long count = sanitizeCount.get();
+        long nanos = sanitizeNanos.get();
+        long bytes = sanitizeBytes.get();
+        int cacheSize;
+        synchronized (cache) {
+            cacheSize = cache.size();
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("sanitize.count=").append(count).append('\n');
+        sb.append("sanitize.bytes=").append(bytes).append('\n');
+        sb.append("sanitize.avg.ms=").append(format(count == 0 ? 0 : nanos / 1e6 / count)).append('\n');
+        sb.append("sanitize.us.per.kb=").append(format(bytes == 0 ? 0 : (nanos / 1e3) / (bytes / 1024.0))).append('\n');
+        sb.append("cache.hits=").append(cacheHits.get()).append('\n');
+        sb.append("cache.misses=").append(count).append('\n');
+        sb.append("cache.size=").append(cacheSize).append('\n');
+        return sb.toString();
+    }
+
+    public long getSanitizeCount() {
+        return sanitizeCount.get();
+    }
+
+    public long getSanitizeNanos() {
+        return sanitizeNanos.get();
+    }
+
+    public long getSanitizeBytes() {
+        return sanitizeBytes.get();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    private static String format(double value) {
+        return String.format("%.3f", value);
+    }
+
+    /**
+     * 計算字串的 UTF-8 位元組長度，不需要實際編碼
+     *
+     * @param s 字串
+     * @return UTF-8 位元組長度
+     */
+    private static long utf8Length(String s) {
+        long length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.announcement.controller;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.validation.Valid;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.ObjectError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.example.announcement.cache.RenderedPageCache;
+import com.example.announcement.dto.AnnouncementResource;
+import com.example.announcement.dto.AnnouncementSummary;
+import com.example.announcement.dto.CursorPage;
+import com.example.announcement.exception.NotFoundException;
+import com.example.announcement.model.Announcement;
+import com.example.announcement.service.AnnouncementService;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+/**
+ * 公告 REST API，以 JSON 提供公告的查詢、新增、修改與刪除，供行動應用與公告看板使用。
+ * 直接使用 Service 層，不經過模板渲染；以 fields 參數選擇輸出的欄位（例如 fields=id,title,publishDate）。
+ */
+@RestController
+@RequestMapping(value = "/api/announcements", produces = "application/json;charset=UTF-8")
+public class AnnouncementApiController {
+
+	private static final int MAX_PAGE_SIZE = 100;
+
+	private static final int MAX_BATCH_DELETE = 1000; // 批次刪除一次最多的公告數
+
+	@Autowired
+	private AnnouncementService service;
+
+	@Autowired
+	private RenderedPageCache renderedPageCache; // 公告資料的版本號，作為列表的 ETag
+
+	/**
+	 * 以游標分頁查詢公告，按發布日期降序排列
+	 * 預設不包含公告內容；fields 包含 content 時才另外讀取內容
+	 *
+	 * @param after  下一頁游標（可選）
+	 * @param before 上一頁游標（可選）
+	 * @param size   每頁筆數（默認為 20，最多 100）
+	 * @param fields 輸出的欄位，以逗號分隔（可選）
+	 * @param request 用於比對 ETag
+	 * @return 當前頁的公告與上一頁、下一頁的游標；資料沒有異動時回應 304
+	 */
+	@GetMapping
+	public ResponseEntity<MappingJacksonValue> list(
+			@RequestParam(required = false) String after,
+			@RequestParam(required = false) String before,
+			@RequestParam(defaultValue = "20") int size,
+			@RequestParam(required = false) String fields,
+			WebRequest request) {
+
+		String etag = renderedPageCache.etag(renderedPageCache.version());
+		if (request.checkNotModified(etag)) {
+			return null;
+		}
+
+		size = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+		Set<String> selected = parseFields(fields);
+		CursorPage<AnnouncementSummary> page = service.getAnnouncementsByCursor(
+				StringUtils.hasText(after) ? after : null, StringUtils.hasText(before) ? before : null, size);
+
+		List<AnnouncementResource> items;
+		if (selected != null && selected.contains("content")) {
+			// 需要內容時以一次 IN 查詢讀取本頁的完整公告
+			List<Integer> ids = page.getItems().stream().map(AnnouncementSummary::getId).collect(Collectors.toList());
+			Map<Integer, Announcement> byId = service.getAnnouncementsByIds(ids).stream()
+					.collect(Collectors.toMap(Announcement::getId, Function.identity()));
+			items = new ArrayList<>(ids.size());
+			for (Integer id : ids) {
+				Announcement announcement = byId.get(id);
+				if (announcement != null) {
+					items.add(AnnouncementResource.from(announcement));
+				}
+			}
+		} else {
+			items = page.getItems().stream().map(AnnouncementResource::from).collect(Collectors.toList());
+		}
+
+		return ResponseEntity.ok()
+				.cacheControl(CacheControl.noCache())
+				.eTag(etag)
+				.body(select(new CursorPage<>(items, page.getNextCursor(), page.getPrevCursor()), selected));
+	}
+
+	/**
+	 * 查詢單一公告
+	 *
+	 * @param id     公告 ID
+	 * @param fields 輸出的欄位，以逗號分隔（可選，例如省略 content）
+	 * @param request 用於比對 ETag
+	 * @return 公告；版本號沒有變更時回應 304
+	 */
+	@GetMapping("/{id}")
+	public ResponseEntity<MappingJacksonValue> get(@PathVariable int id,
+			@RequestParam(required = false) String fields, WebRequest request) {
+		Announcement announcement = service.getAnnouncementById(id);
+		if (announcement == null) {
+			return ResponseEntity.notFound().build();
+		}
+		String etag = "\"" + announcement.getId() + "-" + announcement.getVersion() + "\"";
+		if (request.checkNotModified(etag)) {
+			return null;
+		}
+		return ResponseEntity.ok()
+				.cacheControl(CacheControl.noCache())
+				.eTag(etag)
+				.body(select(AnnouncementResource.from(announcement), parseFields(fields)));
+	}
+
+	/**
+	 * 新增公告（附件只能以表單上傳）
+	 *
+	 * @param resource 公告內容
+	 * @return 新公告，Location 為新公告的網址
+	 * @throws IOException 如果保存內嵌圖片失敗
+	 */
+	@PostMapping(consumes = "application/json")
+	public ResponseEntity<MappingJacksonValue> create(@Valid @RequestBody AnnouncementResource resource)
+			throws IOException {
+		Announcement announcement = resource.toEntity();
+		announcement.setId(null);
+		service.saveAnnouncementWithAttachments(announcement, null);
+
+		URI location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}")
+				.buildAndExpand(announcement.getId()).toUri();
+		return ResponseEntity.created(location).body(select(AnnouncementResource.from(announcement), null));
+	}
+
+	/**
+	 * 修改公告，需帶上讀取時的版本號；保留原附件
+	 *
+	 * @param id       公告 ID
+	 * @param resource 修改後的公告內容
+	 * @return 修改後的公告
+	 * @throws IOException 如果保存內嵌圖片失敗
+	 */
+	@PutMapping(value = "/{id}", consumes = "application/json")
+	public ResponseEntity<MappingJacksonValue> update(@PathVariable int id,
+			@Valid @RequestBody AnnouncementResource resource) throws IOException {
+		if (resource.getVersion() == null) {
+			return error(HttpStatus.BAD_REQUEST, "缺少版本號 version", null);
+		}
+		Announcement changes = resource.toEntity();
+		changes.setId(id);
+		service.updateAnnouncement(changes, null);
+
+		Announcement updated = service.getAnnouncementById(id);
+		return ResponseEntity.ok()
+				.eTag("\"" + updated.getId() + "-" + updated.getVersion() + "\"")
+				.body(select(AnnouncementResource.from(updated), null));
+	}
+
+	/**
+	 * 刪除公告
+	 *
+	 * @param id 公告 ID
+	 * @return 204
+	 */
+	@DeleteMapping("/{id}")
+	public ResponseEntity<Void> delete(@PathVariable int id) {
+		service.deleteAnnouncement(id);
+		return ResponseEntity.noContent().build();
+	}
+
+	/**
+	 * 批次刪除公告，例如 DELETE /api/announcements?ids=1,2,3；已不存在的公告會被略過
+	 *
+	 * @param ids 公告 ID
+	 * @return 實際刪除的筆數
+	 */
+	@DeleteMapping(params = "ids")
+	public ResponseEntity<MappingJacksonValue> deleteAll(@RequestParam List<Integer> ids) {
+		if (ids.size() > MAX_BATCH_DELETE) {
+			return error(HttpStatus.BAD_REQUEST, "一次最多刪除 " + MAX_BATCH_DELETE + " 則公告", null);
+		}
+		int deleted = service.deleteAnnouncements(ids);
+		return ResponseEntity.ok(new MappingJacksonValue(Collections.singletonMap("deleted", deleted)));
+	}
+
+	@ExceptionHandler(MethodArgumentNotValidException.class)
+	public ResponseEntity<MappingJacksonValue> handleInvalid(MethodArgumentNotValidException e) {
+		BindingResult result = e.getBindingResult();
+		List<String> details = new ArrayList<>();
+		for (ObjectError error : result.getAllErrors()) {
+			details.add(error.getDefaultMessage());
+		}
+		return error(HttpStatus.BAD_REQUEST, "資料校驗失敗", details);
+	}
+
+	@ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+	public ResponseEntity<MappingJacksonValue> handleConflict(ObjectOptimisticLockingFailureException e) {
+		return error(HttpStatus.CONFLICT, "公告已被其他人修改，請重新讀取後再修改", null);
+	}
+
+	/**
+	 * 公告不存在
+	 */
+	@ExceptionHandler(NotFoundException.class)
+	public ResponseEntity<MappingJacksonValue> handleNotFound(NotFoundException e) {
+		return error(HttpStatus.NOT_FOUND, e.getMessage(), null);
+	}
+
+	/**
+	 * 參數或游標格式錯誤
+	 */
+	@ExceptionHandler(IllegalArgumentException.class)
+	public ResponseEntity<MappingJacksonValue> handleIllegalArgument(IllegalArgumentException e) {
+		return error(HttpStatus.BAD_REQUEST, e.getMessage(), null);
+	}
+
+	private static ResponseEntity<MappingJacksonValue> error(HttpStatus status, String message, List<String> details) {
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("status", status.value());
+		body.put("error", message);
+		if (details != null) {
+			body.put("details", details);
+		}
+		return ResponseEntity.status(status).body(new MappingJacksonValue(body));
+	}
+
+	/**
+	 * 解析 fields 參數
+	 *
+	 * @param fields 以逗號分隔的欄位名稱
+	 * @return 欄位名稱，未指定時返回 null（輸出所有欄位）
+	 */
+	private static Set<String> parseFields(String fields) {
+		if (!StringUtils.hasText(fields)) {
+			return null;
+		}
+		Set<String> selected = new LinkedHashSet<>();
+		for (String field : Arrays.asList(fields.split(","))) {
+			if (!field.trim().isEmpty()) {
+				selected.add(field.trim());
+			}
+		}
+		return selected.isEmpty() ? null : Collections.unmodifiableSet(selected);
+	}
+
+	/**
+	 * 以 Jackson 過濾器只輸出選擇的欄位
+	 *
+	 * @param body     回應內容
+	 * @param selected 輸出的欄位，null 表示全部
+	 * @return 附帶過濾器的回應內容
+	 */
+	private static MappingJacksonValue select(Object body, Set<String> selected) {
+		MappingJacksonValue value = new MappingJacksonValue(body);
+		value.setFilters(new SimpleFilterProvider().addFilter(AnnouncementResource.FILTER,
+				selected == null ? SimpleBeanPropertyFilter.serializeAll()
+						: SimpleBeanPropertyFilter.filterOutAllExcept(selected)));
+		return value;
+	}
+}
@@ -1,13 +1,24 @@
 package com.example.announcement.controller;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.ui.ModelMap;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
@@ -15,10 +26,25 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.ViewResolver;
+import org.springframework.web.servlet.support.RequestContextUtils;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.example.announcement.cache.RenderedPageCache;
+import com.example.announcement.datasource.ReadYourWrites;
+import com.example.announcement.dto.AnnouncementCursor;
 import com.example.announcement.dto.AnnouncementDTO;
+import com.example.announcement.dto.AnnouncementSummary;
+import com.example.announcement.dto.CursorPage;
+import com.example.announcement.dto.SearchResult;
 import com.example.announcement.model.Announcement;
+import com.example.announcement.service.AnnouncementImportService;
 import com.example.announcement.service.AnnouncementService;
+import com.example.announcement.web.StringCapturingResponse;
 
 /**
  * 公告控制器
@@ -27,34 +53,208 @@ import com.example.announcement.service.AnnouncementService;
 @RequestMapping("/announcements")
 public class AnnouncementController {
 
+	private static final MediaType TEXT_HTML_UTF8 = MediaType.parseMediaType("text/html;charset=UTF-8");
+
 	@Autowired
 	private AnnouncementService service;
 
+	@Autowired
+	private AnnouncementImportService importService; // 公告批次匯入
+
+	@Autowired
+	private RenderedPageCache renderedPageCache; // 已渲染的列表頁快取
+
+	@Autowired
+	private ViewResolver viewResolver; // 渲染列表頁並保存到快取
+
+	@Autowired
+	private ReadYourWrites readYourWrites; // 填入列表頁快取時讀取主庫
+
 	/**
      * 瀏覽公告列表（分頁）
+     * 指定頁碼時使用 offset 分頁（直接跳頁），帶有 after / before 游標時使用 keyset 分頁（上一頁、下一頁）
+     * 已渲染的頁面依公告資料的版本號快取，並以版本號作為 ETag；ETag 相符時直接回應 304
      *
      * @param page 當前頁碼（默認為 0）
-     * @param size 每頁顯示的記錄數（默認為 5）
-     * @param model 模型數據
-     * @return 公告列表頁面
+     * @param size 每頁顯示的記錄數（默認為 5，限制在 1 到 100 之間）
+     * @param after 下一頁游標（可選）
+     * @param before 上一頁游標（可選）
+     * @param request HTTP 請求
+     * @param response HTTP 回應
+     * @return 公告列表頁面，頁碼為負數時返回 400
+     * @throws Exception 如果渲染模板失敗
      */
     @GetMapping
-    public String listAnnouncements(
+    public ResponseEntity<String> listAnnouncements(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "5") int size,
-            Model model) {
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String before,
+            HttpServletRequest request,
+            HttpServletResponse response) throws Exception {
 
+        // 頁碼與筆數是快取鍵的一部分，先檢查範圍，避免任意參數產生的頁面佔用快取
+        if (page < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = Math.max(1, Math.min(size, 100)); // 限制每頁筆數
+        String afterCursor = StringUtils.hasText(after) ? after : null;
+        String beforeCursor = StringUtils.hasText(before) ? before : null;
+
+        // 先比對 ETag，資料沒有異動時不查詢資料庫也不渲染模板
+        long version = renderedPageCache.version();
+        String etag = renderedPageCache.etag(version);
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return null;
+        }
+
+        String key = page + "|" + pageSize + "|" + afterCursor + "|" + beforeCursor;
+        String html = renderedPageCache.get(key, version);
+        if (html == null) {
+            // 渲染結果放進所有用戶端共用的快取，必須讀取主庫，不可使用可能落後的副本
+            ModelMap model = new ModelMap();
+            if (!readYourWrites.onPrimary(() -> buildListModel(page, pageSize, afterCursor, beforeCursor, model))) {
+                // 游標無效時回到第一頁
+                return ResponseEntity.status(HttpStatus.FOUND)
+                        .location(ServletUriComponentsBuilder.fromContextPath(request).path("/announcements").build().toUri())
+                        .build();
+            }
+            html = render("announcement/list", model, request, response);
+            renderedPageCache.put(key, version, html);
+        }
+
+        return ResponseEntity.ok()
+                .contentType(TEXT_HTML_UTF8)
+                .cacheControl(CacheControl.noCache()) // 每次都向伺服器重新驗證，由 ETag 決定是否回應 304
+                .eTag(etag)
+                .body(html);
+    }
+
+    /**
+     * 查詢公告列表頁的資料
+     *
+     * @param page 當前頁碼
+     * @param size 每頁顯示的記錄數
+     * @param after 下一頁游標，可為 null
+     * @param before 上一頁游標，可為 null
+     * @param model 模型數據
+     * @return 游標無效時返回 false
+     */
+    private boolean buildListModel(int page, int size, String after, String before, ModelMap model) {
         // 獲取公告數據
-        List<Announcement> announcements = service.getPagedAnnouncements(page, size);
         Long totalItems = service.getTotalAnnouncementsCount();
         int totalPages = (int) Math.ceil((double) totalItems / size);
 
+        List<AnnouncementSummary> announcements;
+        String nextCursor;
+        String prevCursor;
+        if (after != null || before != null) {
+            CursorPage<AnnouncementSummary> cursorPage;
+            try {
+                cursorPage = service.getAnnouncementsByCursor(after, before, size);
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+            announcements = cursorPage.getItems();
+            nextCursor = cursorPage.getNextCursor();
+            prevCursor = cursorPage.getPrevCursor();
+        } else {
+            // 直接跳頁時，以本頁首尾記錄建立游標，讓上一頁、下一頁也走 keyset 查詢
+            announcements = service.getPagedAnnouncements(page, size);
+            boolean hasNext = !announcements.isEmpty() && page < totalPages - 1;
+            boolean hasPrev = !announcements.isEmpty() && page > 0;
+            nextCursor = hasNext ? toCursor(announcements.get(announcements.size() - 1)) : null;
+            prevCursor = hasPrev ? toCursor(announcements.get(0)) : null;
+        }
+
         // 添加數據到模型
         model.addAttribute("announcements", announcements);
         model.addAttribute("currentPage", page);
         model.addAttribute("totalPages", totalPages);
+        model.addAttribute("nextCursor", nextCursor);
+        model.addAttribute("prevCursor", prevCursor);
+        return true;
+    }
+
+    /**
+     * 以 Spring MVC 的視圖解析器渲染模板，返回 HTML 文字而不是直接寫入回應
+     *
+     * @param viewName 視圖名稱
+     * @param model 模型數據
+     * @param request HTTP 請求
+     * @param response HTTP 回應
+     * @return 渲染後的 HTML
+     * @throws Exception 如果渲染失敗
+     */
+    private String render(String viewName, ModelMap model, HttpServletRequest request, HttpServletResponse response)
+            throws Exception {
+        View view = viewResolver.resolveViewName(viewName, RequestContextUtils.getLocale(request));
+        if (view == null) {
+            throw new IllegalStateException("找不到視圖: " + viewName);
+        }
+        StringCapturingResponse capturing = new StringCapturingResponse(response);
+        view.render(model, request, capturing);
+        return capturing.getContent();
+    }
+
+    /**
+     * 瀏覽今天有效的公告（已發布且尚未截止）
+     *
+     * @param page 當前頁碼（默認為 0）
+     * @param size 每頁顯示的記錄數（默認為 20）
+     * @param model 模型數據
+     * @return 有效公告頁面
+     */
+    @GetMapping("/active")
+    public String listActiveAnnouncements(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Model model) {
 
-        return "announcement/list";
+        page = Math.max(page, 0);
+        size = Math.max(1, Math.min(size, 100)); // 限制每頁筆數
+        List<AnnouncementSummary> active = service.getActiveAnnouncements();
+        int totalPages = (int) Math.ceil((double) active.size() / size);
+        int from = (int) Math.min((long) page * size, active.size());
+        int to = Math.min(from + size, active.size());
+
+        model.addAttribute("announcements", active.subList(from, to));
+        model.addAttribute("totalItems", active.size());
+        model.addAttribute("currentPage", page);
+        model.addAttribute("totalPages", totalPages);
+
+        return "announcement/active";
+    }
+
+    /**
+     * 搜尋公告（標題與內容），依相關度排序
+     *
+     * @param q 查詢文字
+     * @param page 當前頁碼（默認為 0）
+     * @param size 每頁顯示的記錄數（默認為 10）
+     * @param model 模型數據
+     * @return 搜尋結果頁面
+     */
+    @GetMapping("/search")
+    public String searchAnnouncements(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            Model model) {
+
+        page = Math.max(page, 0);
+        size = Math.max(1, Math.min(size, 100)); // 限制每頁筆數
+        SearchResult result = service.searchAnnouncements(q, page, size);
+        int totalPages = (int) Math.ceil((double) result.getTotalHits() / size);
+
+        model.addAttribute("query", q);
+        model.addAttribute("announcements", result.getItems());
+        model.addAttribute("totalHits", result.getTotalHits());
+        model.addAttribute("tookMicros", result.getTookMicros());
+        model.addAttribute("currentPage", page);
+        model.addAttribute("totalPages", totalPages);
+
+        return "announcement/search";
     }
 
     @GetMapping("/new")
@@ -113,9 +313,11 @@ public class AnnouncementController {
 
 	    // 初始化檔案名稱為預設值
 	    String fileName = "尚未上傳附件";
+	    String attachmentFile = null; // 附件下載路徑使用的保存文件名稱
 
 	    // 如果有上傳文件，提取檔案名稱並處理
 	    if (announcement.getUploadFile1() != null && !announcement.getUploadFile1().isEmpty()) {
+	        attachmentFile = announcement.getUploadFile1();
 	        String rawFileName = new File(announcement.getUploadFile1()).getName(); // 提取純檔案名稱
 
 	        // 找到第一個底線的位置，並去掉之前的部分（包含底線）
@@ -129,6 +331,7 @@ public class AnnouncementController {
 
 	    // 將檔案名稱和公告對象添加到模型中
 	    model.addAttribute("fileName", fileName);
+	    model.addAttribute("attachmentFile", attachmentFile);
 	    model.addAttribute("announcement", announcement);
 
 	    // 返回對應的模板名稱
@@ -165,13 +368,18 @@ public class AnnouncementController {
 	        // 3. 設置公告 ID
 	        announcement.setId(id);
 
-	        // 4. 更新公告與附件
-	        service.saveAnnouncementWithAttachments(announcement, announcementDTO.getUploadFile1());
+	        // 4. 只更新有變更的欄位，沒有上傳新附件時保留原附件
+	        service.updateAnnouncement(announcement, announcementDTO.getUploadFile1());
 
 	        // 5. 成功消息
 	        model.addAttribute("message", "公告與附件更新成功！");
+	    } catch (ObjectOptimisticLockingFailureException e) {
+	        // 6. 公告已被其他人修改，不覆寫對方的修改
+	        result.reject("announcement.conflict", "公告已被其他人修改，請重新開啟編輯頁面後再修改");
+	        model.addAttribute("message", "更新失敗：公告已被其他人修改");
+	        return "announcement/updateForm";
 	    } catch (Exception e) {
-	        // 6. 處理保存失敗的情況
+	        // 7. 處理保存失敗的情況
 	        model.addAttribute("message", "更新失敗：" + e.getMessage());
 	        return "announcement/updateForm"; // 返回到更新表單頁面
 	    }
@@ -180,17 +388,85 @@ public class AnnouncementController {
 	}
 
 	/**
-	 * 刪除公告
+	 * 刪除公告（以 POST 送出，避免連結預取或爬蟲誤刪）
 	 *
 	 * @param id 公告 ID
 	 * @return 重定向到公告列表頁面
 	 */
-	@GetMapping("/delete/{id}")
+	@PostMapping("/delete/{id}")
 	public String deleteAnnouncement(@PathVariable int id) {
 		service.deleteAnnouncement(id);
 		return "redirect:/announcements";
 	}
 
+	/**
+	 * 批次刪除列表頁勾選的公告，已不存在的公告會被略過
+	 *
+	 * @param ids 公告 ID（可選，未勾選時不刪除）
+	 * @return 重定向到公告列表頁面
+	 */
+	@PostMapping("/delete")
+	public String deleteAnnouncements(@RequestParam(name = "ids", required = false) List<Integer> ids) {
+		if (ids != null && !ids.isEmpty()) {
+			service.deleteAnnouncements(ids);
+		}
+		return "redirect:/announcements";
+	}
+
+	/**
+	 * 批次匯入公告（以表單上傳文件）
+	 * 未指定格式時依副檔名判斷：.csv 為 CSV，其他為 NDJSON
+	 *
+	 * @param file   匯入文件（UTF-8）
+	 * @param format 資料格式（可選，csv 或 ndjson）
+	 * @return 匯入結果（純文字）
+	 * @throws IOException 如果讀取文件失敗
+	 */
+	@PostMapping(value = "/import", consumes = "multipart/form-data", produces = "text/plain;charset=UTF-8")
+	@ResponseBody
+	public String importAnnouncements(@RequestParam("file") MultipartFile file,
+	        @RequestParam(required = false) String format) throws IOException {
+	    if (!StringUtils.hasText(format)) {
+	        String fileName = file.getOriginalFilename();
+	        format = fileName != null && fileName.toLowerCase().endsWith(".csv") ? "csv" : "ndjson";
+	    }
+	    try (InputStream input = file.getInputStream()) {
+	        return importService.importAnnouncements(input, toFormat(format)).report();
+	    }
+	}
+
+	/**
+	 * 批次匯入公告（直接以請求內容傳送資料）
+	 * 不經過上傳文件的大小限制與暫存，適合大量資料，例如：
+	 * curl -X POST -H "Content-Type: text/csv" --data-binary @announcements.csv .../announcements/import
+	 *
+	 * @param request HTTP 請求，Content-Type 為 text/csv 或 application/x-ndjson
+	 * @return 匯入結果（純文字）
+	 * @throws IOException 如果讀取請求內容失敗
+	 */
+	@PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" },
+	        produces = "text/plain;charset=UTF-8")
+	@ResponseBody
+	public String importAnnouncements(HttpServletRequest request) throws IOException {
+	    String format = request.getContentType().toLowerCase().startsWith("text/csv") ? "csv" : "ndjson";
+	    return importService.importAnnouncements(request.getInputStream(), toFormat(format)).report();
+	}
+
+	private static AnnouncementImportService.Format toFormat(String format) {
+	    return "csv".equalsIgnoreCase(format) ? AnnouncementImportService.Format.CSV
+	            : AnnouncementImportService.Format.NDJSON;
+	}
+
+	/**
+	 * 以公告的排序鍵建立分頁游標
+	 *
+	 * @param announcement 公告摘要
+	 * @return 游標文字
+	 */
+	private String toCursor(AnnouncementSummary announcement) {
+	    return new AnnouncementCursor(announcement.getPublishDate(), announcement.getId()).encode();
+	}
+
 	/**
 	 * 將 AnnouncementDTO 轉換為 Announcement 實體類
 	 *
@@ -205,6 +481,7 @@ public class AnnouncementController {
 	    announcement.setEndDate(dto.getEndDate());
 	    announcement.setContent(dto.getContent());
 	    announcement.setCreatedBy(dto.getCreatedBy());
+	    announcement.setVersion(dto.getVersion());
 	    return announcement;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.example.announcement.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.announcement.event.AnnouncementEventBroadcaster;
+
+/**
+ * 公告異動推送（Server-Sent Events），公告看板以 EventSource 訂閱，收到事件後才重新讀取公告，不需定時輪詢。
+ * 事件名稱為 created、updated、deleted（data 為 {"type":...,"ids":[...]}），無法補送遺漏的事件時為 reset。
+ * 不放在 /api 下，避免經過 GzipResponseFilter 緩衝回應。
+ */
+@Controller
+@RequestMapping("/announcements")
+public class AnnouncementEventController {
+
+	@Autowired
+	private AnnouncementEventBroadcaster broadcaster;
+
+	/**
+	 * 訂閱公告異動
+	 *
+	 * @param lastEventId 重連時瀏覽器帶上的最後事件 ID（可選）
+	 * @return SSE 連線；訂閱者已達上限時回應 503
+	 */
+	@GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<SseEmitter> events(
+			@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+		SseEmitter emitter = broadcaster.subscribe(lastEventId);
+		if (emitter == null) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "30").build();
+		}
+		return ResponseEntity.ok()
+				.cacheControl(CacheControl.noCache())
+				.header("X-Accel-Buffering", "no") // 不讓 Nginx 等反向代理緩衝事件
+				.body(emitter);
+	}
+}
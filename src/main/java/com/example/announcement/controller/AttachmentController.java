@@ -0,0 +1,100 @@
+package com.example.announcement.controller;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import com.example.announcement.storage.AttachmentStore;
+import com.example.announcement.storage.ImageDerivativeStore;
+import com.example.announcement.web.FileDownloadSupport;
+
+/**
+ * 附件控制器，提供公告附件的下載與圖片附件的縮圖
+ */
+@Controller
+@RequestMapping("/attachments")
+public class AttachmentController {
+
+	/**
+	 * 附件鍵對應的內容不會改變，可長期快取
+	 */
+	private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+	@Autowired
+	private AttachmentStore attachmentStore; // 附件的保存位置
+
+	@Autowired
+	private ImageDerivativeStore derivativeStore; // 圖片附件的縮圖
+
+	@Autowired
+	private ServletContext servletContext;
+
+	@Autowired
+	private FileDownloadSupport fileDownloadSupport;
+
+	/**
+	 * 下載附件，支援 Range（續傳）與 ETag（304）
+	 * 指定 w 時輸出該寬度的縮圖（第一次請求時產生），附件不是可縮小的圖片時輸出原附件
+	 *
+	 * @param fileName 附件鍵
+	 * @param width    縮圖寬度（可選，必須是 attachment.derivative.widths 之一）
+	 * @param request  HTTP 請求
+	 * @param response HTTP 回應
+	 * @throws IOException 如果讀取文件失敗
+	 */
+	@GetMapping("/{fileName:.+}")
+	public void download(@PathVariable String fileName, @RequestParam(value = "w", required = false) Integer width,
+			HttpServletRequest request, HttpServletResponse response) throws IOException {
+		if (width != null && !derivativeStore.isSupportedWidth(width)) {
+			response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+			return;
+		}
+
+		// 解析附件路徑（附件鍵無效或文件不存在時返回 null）
+		Path file = attachmentStore.resolve(fileName);
+		if (file == null) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+
+		// 以內容雜湊作為強 ETag
+		String etag = attachmentStore.etag(fileName);
+
+		if (width != null) {
+			ImageDerivativeStore.Derivative derivative = derivativeStore.get(file, etag, width);
+			if (derivative != null) {
+				fileDownloadSupport.send(request, response, derivative.getFile(), derivative.getEtag(),
+						derivative.getContentType(), null, CACHE_CONTROL);
+				return;
+			}
+		}
+
+		String contentType = servletContext.getMimeType(fileName);
+		if (contentType == null) {
+			contentType = "application/octet-stream";
+		}
+
+		fileDownloadSupport.send(request, response, file, etag, contentType, toDownloadName(fileName), CACHE_CONTROL);
+	}
+
+	/**
+	 * 去掉附件鍵中第一個底線之前的識別碼（內容雜湊或時間戳），還原為原始文件名稱
+	 *
+	 * @param fileName 附件鍵
+	 * @return 原始文件名稱
+	 */
+	private String toDownloadName(String fileName) {
+		int underscoreIndex = fileName.indexOf('_');
+		return underscoreIndex != -1 ? fileName.substring(underscoreIndex + 1) : fileName;
+	}
+}
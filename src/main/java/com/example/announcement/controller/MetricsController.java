@@ -0,0 +1,30 @@
+package com.example.announcement.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
+
+/**
+ * 指標控制器，以 Prometheus 文字格式輸出所有指標，供 Prometheus 定期抓取
+ */
+@Controller
+public class MetricsController {
+
+	@Autowired
+	private PrometheusMeterRegistry meterRegistry;
+
+	/**
+	 * 輸出所有指標
+	 *
+	 * @return Prometheus 文字格式的指標
+	 */
+	@GetMapping(value = "/metrics", produces = TextFormat.CONTENT_TYPE_004)
+	@ResponseBody
+	public String metrics() {
+		return meterRegistry.scrape();
+	}
+}
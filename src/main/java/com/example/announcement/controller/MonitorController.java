@@ -0,0 +1,155 @@
+package com.example.announcement.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import com.example.announcement.cache.RenderedPageCache;
+import com.example.announcement.content.HtmlSanitizer;
+import com.example.announcement.datasource.ReadYourWrites;
+import com.example.announcement.datasource.ReplicaRoutingDataSource;
+import com.example.announcement.monitor.ConnectionPoolMetrics;
+import com.example.announcement.monitor.HibernateCacheStatistics;
+import com.example.announcement.monitor.StartupTimeline;
+import com.example.announcement.dto.SweepResult;
+import com.example.announcement.search.AnnouncementSearchIndex;
+import com.example.announcement.storage.OrphanAttachmentSweeper;
+
+/**
+ * 監控控制器，提供系統運行狀態的統計數據
+ */
+@Controller
+@RequestMapping("/monitor")
+public class MonitorController {
+
+	@Autowired
+	private ConnectionPoolMetrics connectionPoolMetrics;
+
+	@Autowired
+	private ReadYourWrites readYourWrites;
+
+	@Autowired(required = false)
+	private ReplicaRoutingDataSource routingDataSource; // 讀寫分離
+
+	@Autowired
+	private HibernateCacheStatistics hibernateCacheStatistics;
+
+	@Autowired
+	private HtmlSanitizer htmlSanitizer;
+
+	@Autowired
+	private AnnouncementSearchIndex searchIndex;
+
+	@Autowired
+	private RenderedPageCache renderedPageCache;
+
+	@Autowired
+	private OrphanAttachmentSweeper orphanAttachmentSweeper;
+
+	@Autowired
+	private ApplicationContext applicationContext; // DispatcherServlet 容器，父容器為根容器
+
+	/**
+	 * 查詢連線池狀態，設定了副本時附上讀寫分離的統計
+	 *
+	 * @return 連線池統計數據（純文字）
+	 */
+	@GetMapping(value = "/pool", produces = "text/plain;charset=UTF-8")
+	@ResponseBody
+	public String poolStats() {
+		if (routingDataSource == null || !readYourWrites.isEnabled()) {
+			return connectionPoolMetrics.report();
+		}
+		return connectionPoolMetrics.report() + routingDataSource.report();
+	}
+
+	/**
+	 * 查詢 Hibernate 二級快取與查詢快取的命中率
+	 *
+	 * @return 快取統計數據（純文字）
+	 */
+	@GetMapping(value = "/hibernate", produces = "text/plain;charset=UTF-8")
+	@ResponseBody
+	public String hibernateStats() {
+		return hibernateCacheStatistics.report();
+	}
+
+	/**
+	 * 查詢 HTML 清理的耗時與快取命中率
+	 *
+	 * @return 清理統計數據（純文字）
+	 */
+	@GetMapping(value = "/sanitizer", produces = "text/plain;charset=UTF-8")
+	@ResponseBody
+	public String sanitizerStats() {
+		return htmlSanitizer.report();
+	}
+
+	/**
+	 * 查詢公告搜尋索引的大小與建立耗時
+	 *
+	 * @return 索引統計數據（純文字）
+	 */
+	@GetMapping(value = "/search", produces = "text/plain;charset=UTF-8")
+	@ResponseBody
+	public String searchIndexStats() {
+		return searchIndex.report();
+	}
+
+	/**
+	 * 查詢公告列表頁快取的命中率
+	 *
+	 * @return 快取統計數據（純文字）
+	 */
+	@GetMapping(value = "/page-cache", produces = "text/plain;charset=UTF-8")
+	@ResponseBody
+	public String pageCacheStats() {
+		return renderedPageCache.report();
+	}
+
+	/**
+	 * 查詢最近一次孤兒附件清理的結果
+	 *
+	 * @return 清理統計數據（純文字）
+	 */
+	@GetMapping(value = "/attachments", produces = "text/plain;charset=UTF-8")
+	@ResponseBody
+	public String attachmentSweepStats() {
+		return orphanAttachmentSweeper.report();
+	}
+
+	/**
+	 * 立即執行一次孤兒附件清理
+	 *
+	 * @return 清理結果（純文字）
+	 */
+	@PostMapping(value = "/attachments/sweep", produces = "text/plain;charset=UTF-8")
+	@ResponseBody
+	public String sweepAttachments() {
+		SweepResult result = orphanAttachmentSweeper.sweep();
+		return result == null ? "已有清理進行中\n" : result.report();
+	}
+
+	/**
+	 * 查詢根容器與 DispatcherServlet 容器的啟動耗時
+	 *
+	 * @return 啟動耗時報告（純文字）
+	 */
+	@GetMapping(value = "/startup", produces = "text/plain;charset=UTF-8")
+	@ResponseBody
+	public String startupStats() {
+		StringBuilder sb = new StringBuilder();
+		for (ApplicationContext context = applicationContext; context != null; context = context.getParent()) {
+			if (context instanceof ConfigurableApplicationContext && ((ConfigurableApplicationContext) context)
+					.getApplicationStartup() instanceof StartupTimeline) {
+				sb.insert(0, ((StartupTimeline) ((ConfigurableApplicationContext) context).getApplicationStartup()).report());
+			}
+		}
+		return sb.toString();
+	}
+}
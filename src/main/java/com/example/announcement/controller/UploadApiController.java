@@ -0,0 +1,158 @@
+package com.example.announcement.controller;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.example.announcement.dto.UploadStatus;
+import com.example.announcement.exception.NotFoundException;
+import com.example.announcement.service.AnnouncementService;
+import com.example.announcement.storage.ChunkedUploadStore;
+
+/**
+ * 可續傳的分段上傳 API，用於超過表單上傳上限（10 MB）或網路不穩定時的大型附件：
+ * 1. POST /api/uploads?fileName=&size=&sha256= 建立上傳
+ * 2. PUT /api/uploads/{id}?offset= 以 application/octet-stream 送出一段內容，中斷後以 GET /api/uploads/{id} 查詢 offset 繼續
+ * 3. POST /api/uploads/{id}/complete?announcementId= 驗證 SHA-256 並替換公告的附件
+ * 內容不經過 MultipartResolver，直接從請求串流寫入磁碟。
+ */
+@RestController
+@RequestMapping(value = "/api/uploads", produces = "application/json;charset=UTF-8")
+public class UploadApiController {
+
+	@Autowired
+	private ChunkedUploadStore uploadStore;
+
+	@Autowired
+	private AnnouncementService service;
+
+	/**
+	 * 建立上傳
+	 *
+	 * @param fileName 原始文件名稱
+	 * @param size     文件大小
+	 * @param sha256   文件內容的 SHA-256（十六進位）
+	 * @return 201 與上傳狀態，Location 為上傳的 URL
+	 * @throws IOException 如果建立文件失敗
+	 */
+	@PostMapping
+	public ResponseEntity<UploadStatus> create(@RequestParam String fileName, @RequestParam long size,
+			@RequestParam String sha256) throws IOException {
+		UploadStatus status = uploadStore.create(fileName, size, sha256);
+		URI location = ServletUriComponentsBuilder.fromCurrentRequest().replaceQuery(null)
+				.path("/{id}").buildAndExpand(status.getId()).toUri();
+		return ResponseEntity.created(location).body(status);
+	}
+
+	/**
+	 * 查詢上傳狀態
+	 *
+	 * @param id 上傳 ID
+	 * @return 上傳狀態，offset 為下一段的位移
+	 * @throws IOException 如果讀取上傳記錄失敗
+	 */
+	@GetMapping("/{id}")
+	public UploadStatus status(@PathVariable String id) throws IOException {
+		return uploadStore.status(id);
+	}
+
+	/**
+	 * 送出一段內容
+	 *
+	 * @param id      上傳 ID
+	 * @param offset  這段內容在文件中的位移
+	 * @param request 請求本文為這段內容
+	 * @return 寫入後的上傳狀態
+	 * @throws IOException 如果讀取請求或寫入文件失敗
+	 */
+	@PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+	public UploadStatus append(@PathVariable String id, @RequestParam long offset, HttpServletRequest request)
+			throws IOException {
+		return uploadStore.append(id, offset, request.getInputStream());
+	}
+
+	/**
+	 * 完成上傳：驗證 SHA-256 後替換公告的附件
+	 *
+	 * @param id             上傳 ID
+	 * @param announcementId 公告 ID
+	 * @return 上傳狀態，包含附件鍵
+	 * @throws IOException 如果讀取或保存文件失敗
+	 */
+	@PostMapping("/{id}/complete")
+	public UploadStatus complete(@PathVariable String id, @RequestParam int announcementId) throws IOException {
+		UploadStatus status = uploadStore.status(id);
+		ChunkedUploadStore.CompletedUpload upload = uploadStore.complete(id);
+		try {
+			status.setAttachmentKey(service.attachFile(announcementId, upload.getFile(), upload.getFileName(),
+					upload.getSha256(), upload.getSize()));
+		} catch (IOException | RuntimeException e) {
+			uploadStore.reopen(id, upload); // 例如公告不存在，恢復上傳讓用戶端可以重試
+			throw e;
+		}
+		uploadStore.remove(id);
+		return status;
+	}
+
+	/**
+	 * 取消上傳
+	 *
+	 * @param id 上傳 ID
+	 * @return 204
+	 * @throws IOException 如果刪除文件失敗
+	 */
+	@DeleteMapping("/{id}")
+	public ResponseEntity<Void> cancel(@PathVariable String id) throws IOException {
+		uploadStore.remove(id);
+		return ResponseEntity.noContent().build();
+	}
+
+	/**
+	 * 上傳或公告不存在
+	 */
+	@ExceptionHandler(NotFoundException.class)
+	public ResponseEntity<Map<String, Object>> handleNotFound(NotFoundException e) {
+		return error(HttpStatus.NOT_FOUND, e.getMessage());
+	}
+
+	/**
+	 * 參數無效、內容超過宣告的大小或 SHA-256 不符
+	 */
+	@ExceptionHandler(IllegalArgumentException.class)
+	public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException e) {
+		return error(HttpStatus.BAD_REQUEST, e.getMessage());
+	}
+
+	/**
+	 * 位移不連續或尚未接收完整，用戶端應查詢狀態後從 offset 繼續
+	 */
+	@ExceptionHandler(IllegalStateException.class)
+	public ResponseEntity<Map<String, Object>> handleIllegalState(IllegalStateException e) {
+		return error(HttpStatus.CONFLICT, e.getMessage());
+	}
+
+	private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("status", status.value());
+		body.put("error", message);
+		return ResponseEntity.status(status).body(body);
+	}
+}
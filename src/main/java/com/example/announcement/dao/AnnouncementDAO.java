@@ -1,19 +1,32 @@
 package com.example.announcement.dao;
 
+import com.example.announcement.dto.AnnouncementSummary;
 import com.example.announcement.model.Announcement;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * AnnouncementDAO 負責與數據庫進行交互。
+ * 列表與總數量查詢使用查詢快取，Hibernate 在 announcement 表有任何寫入提交後使快取的結果失效；
+ * 因此對 announcement 表的寫入必須經過 Session（實體操作或 HQL），不可使用原生 SQL 直接修改。
  */
 @Repository
 public class AnnouncementDAO {
 
+    /**
+     * 列表查詢使用的建構式投影，只選取摘要欄位，不讀取公告內容
+     */
+    private static final String SUMMARY_SELECT = "SELECT new com.example.announcement.dto.AnnouncementSummary("
+            + "a.id, a.title, a.publishDate, a.endDate, a.createdBy) FROM Announcement a";
+
     @Autowired
     private SessionFactory sessionFactory;
 
@@ -27,17 +40,88 @@ public class AnnouncementDAO {
     }
 
     /**
-     * 獲取所有公告（分頁）
+     * 獲取所有公告摘要（分頁）
      *
      * @param pageNumber 當前頁碼（從 0 開始）
      * @param pageSize 每頁顯示的記錄數
-     * @return 分頁的公告列表
+     * @return 分頁的公告摘要列表
      */
-    public List<Announcement> getPagedAnnouncements(int pageNumber, int pageSize) {
+    public List<AnnouncementSummary> getPagedAnnouncements(int pageNumber, int pageSize) {
         Session session = sessionFactory.getCurrentSession();
-        return session.createQuery("FROM Announcement ORDER BY publishDate DESC", Announcement.class)
+        return session.createQuery(SUMMARY_SELECT + " ORDER BY a.publishDate DESC, a.id DESC", AnnouncementSummary.class)
                 .setFirstResult(pageNumber * pageSize) // 起始記錄索引
                 .setMaxResults(pageSize)              // 每頁記錄數
+                .setCacheable(true)
+                .list();
+    }
+
+    /**
+     * 獲取排在游標之後（較舊）的公告摘要，按 (publishDate, id) 降序排列
+     * 透過複合索引直接定位起點，不需要掃描並丟棄前面的記錄
+     *
+     * @param publishDate 游標的發布日期
+     * @param id 游標的公告 ID
+     * @param limit 最多返回的記錄數
+     * @return 公告摘要列表（降序）
+     */
+    public List<AnnouncementSummary> getAnnouncementsAfter(LocalDate publishDate, int id, int limit) {
+        return getCurrentSession().createQuery(
+                SUMMARY_SELECT + " WHERE a.publishDate < :publishDate"
+                        + " OR (a.publishDate = :publishDate AND a.id < :id)"
+                        + " ORDER BY a.publishDate DESC, a.id DESC", AnnouncementSummary.class)
+                .setParameter("publishDate", publishDate)
+                .setParameter("id", id)
+                .setMaxResults(limit)
+                .setCacheable(true)
+                .list();
+    }
+
+    /**
+     * 獲取排在游標之前（較新）的公告摘要，按 (publishDate, id) 升序排列
+     * 呼叫方需自行反轉結果以得到與列表相同的降序
+     *
+     * @param publishDate 游標的發布日期
+     * @param id 游標的公告 ID
+     * @param limit 最多返回的記錄數
+     * @return 公告摘要列表（升序）
+     */
+    public List<AnnouncementSummary> getAnnouncementsBefore(LocalDate publishDate, int id, int limit) {
+        return getCurrentSession().createQuery(
+                SUMMARY_SELECT + " WHERE a.publishDate > :publishDate"
+                        + " OR (a.publishDate = :publishDate AND a.id > :id)"
+                        + " ORDER BY a.publishDate ASC, a.id ASC", AnnouncementSummary.class)
+                .setParameter("publishDate", publishDate)
+                .setParameter("id", id)
+                .setMaxResults(limit)
+                .setCacheable(true)
+                .list();
+    }
+
+    /**
+     * 獲取指定日期有效的公告摘要（publishDate <= date <= endDate），按 (publishDate, id) 降序排列
+     * 以 (endDate, publishDate) 複合索引篩選尚未截止的公告，不需要掃描已過期的記錄
+     *
+     * @param date 日期
+     * @return 有效的公告摘要列表（降序）
+     */
+    public List<AnnouncementSummary> getActiveAnnouncements(LocalDate date) {
+        return getCurrentSession().createQuery(
+                SUMMARY_SELECT + " WHERE a.endDate >= :date AND a.publishDate <= :date"
+                        + " ORDER BY a.publishDate DESC, a.id DESC", AnnouncementSummary.class)
+                .setParameter("date", date)
+                .list();
+    }
+
+    /**
+     * 獲取截止日期在指定日期當天或之後的公告摘要，包含已發布與尚未發布的公告
+     *
+     * @param date 日期
+     * @return 尚未截止的公告摘要列表（無排序）
+     */
+    public List<AnnouncementSummary> getAnnouncementsEndingOnOrAfter(LocalDate date) {
+        return getCurrentSession().createQuery(
+                SUMMARY_SELECT + " WHERE a.endDate >= :date AND a.publishDate IS NOT NULL", AnnouncementSummary.class)
+                .setParameter("date", date)
                 .list();
     }
 
@@ -49,6 +133,7 @@ public class AnnouncementDAO {
     public Long getTotalAnnouncementsCount() {
         Session session = sessionFactory.getCurrentSession();
         return session.createQuery("SELECT COUNT(a) FROM Announcement a", Long.class)
+                .setCacheable(true)
                 .uniqueResult();
     }
 
@@ -62,6 +147,81 @@ public class AnnouncementDAO {
         return getCurrentSession().get(Announcement.class, id);
     }
 
+    /**
+     * 根據 ID 批次獲取公告
+     *
+     * @param ids 公告 ID
+     * @return 公告對象（不存在的 ID 會被略過）
+     */
+    public List<Announcement> getByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return getCurrentSession().createQuery("FROM Announcement a WHERE a.id IN (:ids)", Announcement.class)
+                .setParameterList("ids", ids)
+                .list();
+    }
+
+    /**
+     * 按 ID 順序逐段獲取完整公告（包含內容），供建立搜尋索引等需要掃描全表的工作使用
+     *
+     * @param id 從此 ID 之後開始取（第一段傳入 0）
+     * @param limit 最多返回的記錄數
+     * @return 公告對象（ID 升序）
+     */
+    public List<Announcement> getAnnouncementsAfterId(int id, int limit) {
+        return getCurrentSession().createQuery(
+                "FROM Announcement a WHERE a.id > :id ORDER BY a.id ASC", Announcement.class)
+                .setParameter("id", id)
+                .setMaxResults(limit)
+                .list();
+    }
+
+    /**
+     * 按 ID 順序逐段獲取公告內容（只選取 ID 與內容），供孤兒附件清理找出仍被引用的內嵌圖片
+     *
+     * @param id 從此 ID 之後開始取（第一段傳入 0）
+     * @param limit 最多返回的記錄數
+     * @return [公告 ID, 公告內容]（ID 升序）
+     */
+    public List<Object[]> getContentsAfterId(int id, int limit) {
+        return getCurrentSession().createQuery(
+                "SELECT a.id, a.content FROM Announcement a WHERE a.id > :id ORDER BY a.id ASC", Object[].class)
+                .setParameter("id", id)
+                .setMaxResults(limit)
+                .list();
+    }
+
+    /**
+     * 從指定的附件鍵中找出仍被公告引用的附件鍵
+     *
+     * @param keys 附件鍵
+     * @return 仍被引用的附件鍵
+     */
+    public List<String> getReferencedAttachmentKeys(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return getCurrentSession().createQuery(
+                "SELECT DISTINCT a.uploadFile1 FROM Announcement a WHERE a.uploadFile1 IN (:keys)", String.class)
+                .setParameterList("keys", keys)
+                .list();
+    }
+
+    /**
+     * 檢查是否有公告內容包含指定文字（全表掃描，只用於確認少量候選項目）
+     *
+     * @param text 文字
+     * @return 是否有公告內容包含此文字
+     */
+    public boolean isContentReferencing(String text) {
+        Long count = getCurrentSession().createQuery(
+                "SELECT COUNT(a) FROM Announcement a WHERE a.content LIKE :pattern", Long.class)
+                .setParameter("pattern", "%" + text + "%")
+                .uniqueResult();
+        return count != null && count > 0;
+    }
+
     /**
      * 保存或更新公告
      *
@@ -72,14 +232,60 @@ public class AnnouncementDAO {
     }
 
     /**
-     * 刪除公告
+     * 批次新增公告
+     * 每 batchSize 筆 flush 一次，讓 INSERT 以 JDBC 批次送出，並清空 Session 避免一級快取持續增長
+     * batchSize 應與 hibernate.jdbc.batch_size 相同
      *
-     * @param id 公告 ID
+     * @param announcements 新公告（ID 為 null）
+     * @param batchSize 每批筆數
+     * @return 新公告的 ID，順序與傳入的列表相同
+     */
+    public List<Integer> saveAll(List<Announcement> announcements, int batchSize) {
+        Session session = getCurrentSession();
+        List<Integer> ids = new ArrayList<>(announcements.size());
+        for (int i = 0; i < announcements.size(); i++) {
+            Announcement announcement = announcements.get(i);
+            session.save(announcement);
+            ids.add(announcement.getId());
+            if ((i + 1) % batchSize == 0) {
+                session.flush();
+                session.clear();
+            }
+        }
+        session.flush();
+        session.clear();
+        return ids;
+    }
+
+    /**
+     * 只選取附件鍵，刪除公告前用於釋放附件引用，不讀取公告內容
+     *
+     * @param ids 公告 ID
+     * @return [公告 ID, 附件鍵]（不存在的 ID 會被略過，附件鍵可能為 null）
+     */
+    public List<Object[]> getAttachmentKeys(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return getCurrentSession().createQuery(
+                "SELECT a.id, a.uploadFile1 FROM Announcement a WHERE a.id IN (:ids)", Object[].class)
+                .setParameterList("ids", ids)
+                .list();
+    }
+
+    /**
+     * 以一次 DELETE ... WHERE id IN (...) 刪除公告，不先讀取實體
+     * HQL 批次刪除提交後，Hibernate 會清除公告的二級快取區域與相關的查詢快取
+     *
+     * @param ids 公告 ID
+     * @return 實際刪除的筆數
      */
-    public void delete(int id) {
-        Announcement announcement = getById(id);
-        if (announcement != null) {
-            getCurrentSession().delete(announcement);
+    public int deleteByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return 0;
         }
+        return getCurrentSession().createQuery("DELETE FROM Announcement a WHERE a.id IN (:ids)")
+                .setParameterList("ids", ids)
+                .executeUpdate();
     }
-}
\ No newline at end of file
+}
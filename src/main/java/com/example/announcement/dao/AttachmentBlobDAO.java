@@ -0,0 +1,133 @@
+package com.example.announcement.dao;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.LockModeType;
+
+import com.example.announcement.model.AttachmentBlob;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+/**
+ * AttachmentBlobDAO 負責維護附件文件的引用計數。
+ * 計數以單一 UPDATE 語句增減，避免「先讀再寫」在並發時遺失更新；
+ * 記錄的行鎖同時用來讓同一個文件的保存與刪除互斥。
+ */
+@Repository
+public class AttachmentBlobDAO {
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    /**
+     * 獲取當前的 Hibernate Session
+     *
+     * @return Hibernate Session
+     */
+    private Session getCurrentSession() {
+        return sessionFactory.getCurrentSession();
+    }
+
+    /**
+     * 增加一個引用，記錄不存在時建立新記錄。
+     * UPDATE 取得的行鎖保持到交易結束，同一個文件的保存與刪除在資料庫中互斥，多台伺服器之間同樣有效
+     *
+     * @param hash 文件內容的 SHA-256
+     * @param size 文件大小
+     */
+    public void acquire(String hash, long size) {
+        Session session = getCurrentSession();
+        // INSERT IGNORE（MySQL 語法）：同時上傳相同的新內容時不會因主鍵重複而失敗
+        session.createNativeQuery("INSERT IGNORE INTO attachment_blob (hash, fileSize, refCount) VALUES (:hash, :size, 0)")
+                .setParameter("hash", hash)
+                .setParameter("size", size)
+                .executeUpdate();
+        session.createQuery("UPDATE AttachmentBlob b SET b.refCount = b.refCount + 1 WHERE b.hash = :hash")
+                .setParameter("hash", hash)
+                .executeUpdate();
+    }
+
+    /**
+     * 減少一個引用，引用數歸零時刪除記錄
+     *
+     * @param hash 文件內容的 SHA-256
+     * @return 剩餘的引用數，記錄不存在時返回 0
+     */
+    public int release(String hash) {
+        Session session = getCurrentSession();
+        session.createQuery("UPDATE AttachmentBlob b SET b.refCount = b.refCount - 1"
+                + " WHERE b.hash = :hash AND b.refCount > 0")
+                .setParameter("hash", hash)
+                .executeUpdate();
+        Integer remaining = session
+                .createQuery("SELECT b.refCount FROM AttachmentBlob b WHERE b.hash = :hash", Integer.class)
+                .setParameter("hash", hash)
+                .uniqueResult();
+        if (remaining == null || remaining <= 0) {
+            delete(hash);
+            return 0;
+        }
+        return remaining;
+    }
+
+    /**
+     * 以 SELECT ... FOR UPDATE 鎖定記錄並取得引用數，鎖保持到交易結束，期間同一個文件的保存會等待
+     *
+     * @param hash 文件內容的 SHA-256
+     * @return 引用數，記錄不存在時返回 null
+     */
+    public Integer lockRefCount(String hash) {
+        AttachmentBlob blob = getCurrentSession()
+                .createQuery("FROM AttachmentBlob b WHERE b.hash = :hash", AttachmentBlob.class)
+                .setParameter("hash", hash)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .uniqueResult();
+        return blob == null ? null : blob.getRefCount();
+    }
+
+    /**
+     * 刪除引用數已歸零的記錄（文件被清理時留下的記錄）
+     *
+     * @param hash 文件內容的 SHA-256
+     */
+    public void delete(String hash) {
+        getCurrentSession()
+                .createQuery("DELETE FROM AttachmentBlob b WHERE b.hash = :hash AND b.refCount <= 0")
+                .setParameter("hash", hash)
+                .executeUpdate();
+    }
+
+    /**
+     * 檢查文件是否仍被引用
+     *
+     * @param hash 文件內容的 SHA-256
+     * @return 是否仍有引用
+     */
+    public boolean isReferenced(String hash) {
+        Long count = getCurrentSession()
+                .createQuery("SELECT COUNT(b) FROM AttachmentBlob b WHERE b.hash = :hash AND b.refCount > 0", Long.class)
+                .setParameter("hash", hash)
+                .uniqueResult();
+        return count != null && count > 0;
+    }
+
+    /**
+     * 從指定的雜湊中找出仍被引用的文件
+     *
+     * @param hashes 文件內容的 SHA-256
+     * @return 仍有引用的雜湊
+     */
+    public List<String> getReferencedHashes(Collection<String> hashes) {
+        if (hashes.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return getCurrentSession()
+                .createQuery("SELECT b.hash FROM AttachmentBlob b WHERE b.hash IN (:hashes) AND b.refCount > 0", String.class)
+                .setParameterList("hashes", hashes)
+                .list();
+    }
+}
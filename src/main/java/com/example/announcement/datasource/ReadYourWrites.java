@@ -0,0 +1,105 @@
+package com.example.announcement.datasource;
+
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * ReadYourWrites 記錄目前執行緒（請求）是否需要讀取主庫。
+ * 寫入交易提交後的一段時間內，唯讀交易也改讀主庫，避免副本複製延遲時讀不到剛保存的資料。
+ * 網頁請求由 ReadYourWritesFilter 以 Cookie 延續到同一用戶端之後的請求（例如保存後重定向到列表頁）。
+ * 延續只針對個別用戶端；填入所有用戶端共用的快取時以 onPrimary 讀取主庫，避免把副本上的舊資料放進快取。
+ */
+@Component
+public class ReadYourWrites {
+
+    private final ThreadLocal<Stickiness> current = ThreadLocal.withInitial(Stickiness::new);
+
+    @Value("${db.replica.url:}")
+    private String replicaUrl; // 未設定副本時全部讀寫主庫，不需要延續
+
+    @Value("${db.replica.sticky-millis:5000}")
+    private long stickyMillis; // 寫入後改讀主庫的時間，應大於副本的複製延遲
+
+    /**
+     * 是否設定了副本
+     *
+     * @return 設定了副本時返回 true
+     */
+    public boolean isEnabled() {
+        return StringUtils.hasText(replicaUrl);
+    }
+
+    public long getStickyMillis() {
+        return stickyMillis;
+    }
+
+    /**
+     * 請求開始時設定之前寫入後的主庫讀取期限，並在這次請求寫入時通知
+     *
+     * @param primaryUntil 讀取主庫的期限（epoch 毫秒），0 表示沒有
+     * @param onWrite      寫入交易提交時以新的期限呼叫（例如更新 Cookie）
+     */
+    public void begin(long primaryUntil, LongConsumer onWrite) {
+        Stickiness stickiness = current.get();
+        // 用戶端送來的期限不可超過一個延續時間，避免永久讀取主庫
+        stickiness.primaryUntil = Math.min(primaryUntil, System.currentTimeMillis() + stickyMillis);
+        stickiness.onWrite = onWrite;
+    }
+
+    /**
+     * 請求結束時清除
+     */
+    public void end() {
+        current.remove();
+    }
+
+    /**
+     * 目前是否需要讀取主庫
+     *
+     * @return 寫入後的延續時間內或 onPrimary 執行期間返回 true
+     */
+    public boolean isPrimaryRequired() {
+        Stickiness stickiness = current.get();
+        return stickiness.primaryDepth > 0 || System.currentTimeMillis() < stickiness.primaryUntil;
+    }
+
+    /**
+     * 在目前執行緒讀取主庫執行，用於填入共用快取的查詢
+     *
+     * @param action 查詢
+     * @return 查詢結果
+     */
+    public <T> T onPrimary(Supplier<T> action) {
+        Stickiness stickiness = current.get();
+        stickiness.primaryDepth++;
+        try {
+            return action.get();
+        } finally {
+            stickiness.primaryDepth--;
+        }
+    }
+
+    /**
+     * 寫入交易提交後呼叫，之後的延續時間內讀取主庫
+     */
+    public void writeCommitted() {
+        Stickiness stickiness = current.get();
+        stickiness.primaryUntil = System.currentTimeMillis() + stickyMillis;
+        if (stickiness.onWrite != null) {
+            stickiness.onWrite.accept(stickiness.primaryUntil);
+        }
+    }
+
+    private static class Stickiness {
+
+        private long primaryUntil; // 讀取主庫的期限（epoch 毫秒）
+
+        private LongConsumer onWrite;
+
+        private int primaryDepth; // onPrimary 的巢狀層數
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.announcement.datasource;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.hibernate.CacheMode;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.orm.hibernate5.SessionHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * ReplicaRoutingDataSource 將唯讀交易（@Transactional(readOnly = true)）的連線導向副本，其他連線導向主庫。
+ * 必須包在 LazyConnectionDataSourceProxy 內使用：交易開始時的唯讀標記在取得連線之後才設定，
+ * 延遲到第一條 SQL 才取得實際連線，才能依唯讀標記選擇資料庫。
+ * 寫入交易提交後由 ReadYourWrites 記錄，延續時間內的唯讀交易也讀取主庫。
+ * 副本可能落後於主庫，讀取副本的交易只從 Hibernate 二級快取與查詢快取讀取，不把查詢結果放進快取。
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+
+    private static final String REPLICA = "replica";
+
+    private final ReadYourWrites readYourWrites;
+
+    private final AtomicLong primaryCount = new AtomicLong(); // 取得主庫連線次數
+
+    private final AtomicLong replicaCount = new AtomicLong(); // 取得副本連線次數
+
+    private final AtomicLong stickyCount = new AtomicLong(); // 唯讀交易因剛寫入或填入共用快取而改讀主庫的次數
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        if (replica != null) {
+            targets.put(REPLICA, replica); // 未設定副本時找不到 replica，改用預設的主庫
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new WriteCommittedSynchronization());
+            }
+            primaryCount.incrementAndGet();
+            return PRIMARY;
+        }
+        if (readYourWrites.isPrimaryRequired()) {
+            stickyCount.incrementAndGet();
+            primaryCount.incrementAndGet();
+            return PRIMARY;
+        }
+        replicaCount.incrementAndGet();
+        disableCachePut();
+        return REPLICA;
+    }
+
+    /**
+     * 目前交易的 Hibernate Session 改為只讀取快取（CacheMode.GET），副本讀到的舊資料不會放進共用的快取
+     */
+    private void disableCachePut() {
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (resource instanceof SessionHolder) {
+                ((SessionHolder) resource).getSession().setCacheMode(CacheMode.GET);
+            }
+        }
+    }
+
+    public long getPrimaryCount() {
+        return primaryCount.get();
+    }
+
+    public long getReplicaCount() {
+        return replicaCount.get();
+    }
+
+    public long getStickyCount() {
+        return stickyCount.get();
+    }
+
+    /**
+     * 以 key=value 文字輸出讀寫分離的統計數據
+     *
+     * @return 統計數據
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("routing.primary=").append(primaryCount.get()).append('\n');
+        sb.append("routing.replica=").append(replicaCount.get()).append('\n');
+        sb.append("routing.sticky=").append(stickyCount.get()).append('\n');
+        sb.append("routing.sticky.millis=").append(readYourWrites.getStickyMillis()).append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * 寫入交易提交後記錄，最先執行，讓提交後重新載入快取的監聽者也讀取主庫
+     */
+    private class WriteCommittedSynchronization implements TransactionSynchronization, Ordered {
+
+        @Override
+        public void afterCommit() {
+            readYourWrites.writeCommitted();
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.announcement.dto;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 公告列表的分頁游標，對應排序鍵 (publishDate, id)。
+ * 以「發布日期_公告ID」的文字形式在 URL 中傳遞，例如 2024-05-01_123。
+ */
+@Data
+@AllArgsConstructor
+public class AnnouncementCursor {
+
+    private static final char SEPARATOR = '_';
+
+    private LocalDate publishDate; // 游標所在公告的發布日期
+
+    private int id; // 游標所在公告的 ID
+
+    /**
+     * 將游標轉換為 URL 參數值
+     *
+     * @return 游標文字
+     */
+    public String encode() {
+        return publishDate.toString() + SEPARATOR + id;
+    }
+
+    /**
+     * 解析 URL 參數中的游標
+     *
+     * @param value 游標文字
+     * @return 游標對象
+     * @throws IllegalArgumentException 如果游標格式不正確
+     */
+    public static AnnouncementCursor decode(String value) {
+        int index = value == null ? -1 : value.lastIndexOf(SEPARATOR);
+        if (index <= 0 || index == value.length() - 1) {
+            throw new IllegalArgumentException("無效的分頁游標: " + value);
+        }
+        try {
+            LocalDate publishDate = LocalDate.parse(value.substring(0, index));
+            int id = Integer.parseInt(value.substring(index + 1));
+            return new AnnouncementCursor(publishDate, id);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("無效的分頁游標: " + value, e);
+        }
+    }
+}
@@ -34,4 +34,6 @@ public class AnnouncementDTO {
     private String createdBy; // 公告創建者
 
     private MultipartFile uploadFile1; // 附件文件
+
+    private Integer version; // 開啟編輯頁時的版本號，用於偵測同時編輯
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.example.announcement.dto;
+
+import java.time.LocalDate;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import com.example.announcement.model.Announcement;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * /api/announcements 的公告表示，同時作為新增、修改的請求內容與查詢的回應內容。
+ * 回應時以 fields 參數選擇輸出的欄位（Jackson 過濾器 FILTER），null 欄位不輸出。
+ */
+@Data
+@NoArgsConstructor
+@JsonFilter(AnnouncementResource.FILTER)
+public class AnnouncementResource {
+
+    /**
+     * 選擇輸出欄位的 Jackson 過濾器名稱
+     */
+    public static final String FILTER = "announcementFields";
+
+    private Integer id; // 公告 ID
+
+    @NotNull(message = "標題不能為空")
+    @Size(max = 100, message = "標題不能超過 100 個字元")
+    private String title; // 公告標題
+
+    @NotNull(message = "發布日期不能為空")
+    private LocalDate publishDate; // 公告發布日期（yyyy-MM-dd）
+
+    @NotNull(message = "截止日期不能為空")
+    private LocalDate endDate; // 公告截止日期（yyyy-MM-dd）
+
+    private String content; // 公告內容（HTML）
+
+    @NotNull(message = "創建者不能為空")
+    private String createdBy; // 公告創建者
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String attachment; // 附件鍵，下載路徑為 /attachments/{attachment}；只能以表單上傳
+
+    private Integer version; // 版本號，修改時需帶上讀取時的版本號
+
+    /**
+     * 由完整公告建立
+     *
+     * @param announcement 公告對象
+     * @return 公告表示
+     */
+    public static AnnouncementResource from(Announcement announcement) {
+        AnnouncementResource resource = new AnnouncementResource();
+        resource.setId(announcement.getId());
+        resource.setTitle(announcement.getTitle());
+        resource.setPublishDate(announcement.getPublishDate());
+        resource.setEndDate(announcement.getEndDate());
+        resource.setContent(announcement.getContent());
+        resource.setCreatedBy(announcement.getCreatedBy());
+        resource.setAttachment(announcement.getUploadFile1());
+        resource.setVersion(announcement.getVersion());
+        return resource;
+    }
+
+    /**
+     * 由公告摘要建立（不包含內容、附件與版本號）
+     *
+     * @param summary 公告摘要
+     * @return 公告表示
+     */
+    public static AnnouncementResource from(AnnouncementSummary summary) {
+        AnnouncementResource resource = new AnnouncementResource();
+        resource.setId(summary.getId());
+        resource.setTitle(summary.getTitle());
+        resource.setPublishDate(summary.getPublishDate());
+        resource.setEndDate(summary.getEndDate());
+        resource.setCreatedBy(summary.getCreatedBy());
+        return resource;
+    }
+
+    /**
+     * 轉換為實體類（新增或修改用）
+     *
+     * @return 公告對象
+     */
+    public Announcement toEntity() {
+        Announcement announcement = new Announcement();
+        announcement.setId(id);
+        announcement.setTitle(title);
+        announcement.setPublishDate(publishDate);
+        announcement.setEndDate(endDate);
+        announcement.setContent(content);
+        announcement.setCreatedBy(createdBy);
+        announcement.setVersion(version);
+        return announcement;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.announcement.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 公告摘要，僅包含列表頁需要的欄位。
+ * 由 HQL 的建構式查詢（SELECT new ...）直接建立，不載入 @Lob 的公告內容，也不會被 Session 追蹤。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnnouncementSummary {
+
+    private Integer id; // 公告 ID
+
+    private String title; // 公告標題
+
+    private LocalDate publishDate; // 公告發布日期
+
+    private LocalDate endDate; // 公告截止日期
+
+    private String createdBy; // 公告創建者
+}
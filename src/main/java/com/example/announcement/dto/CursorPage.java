@@ -0,0 +1,22 @@
+package com.example.announcement.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 游標分頁的查詢結果
+ *
+ * @param <T> 列表項目類型
+ */
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> items; // 當前頁的資料
+
+    private String nextCursor; // 下一頁（較舊公告）的游標，沒有下一頁時為 null
+
+    private String prevCursor; // 上一頁（較新公告）的游標，沒有上一頁時為 null
+}
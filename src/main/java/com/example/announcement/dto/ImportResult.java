@@ -0,0 +1,66 @@
+package com.example.announcement.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * 公告批次匯入的結果
+ */
+@Data
+public class ImportResult {
+
+    /**
+     * 最多保留的錯誤訊息數，避免大量錯誤資料佔用記憶體
+     */
+    public static final int MAX_ERRORS = 100;
+
+    private int imported; // 成功匯入的筆數
+
+    private int failed; // 失敗的筆數
+
+    private long elapsedMillis; // 匯入耗時（毫秒）
+
+    private long lastRecord; // 最後讀取的資料序號，之前的資料已處理完成（成功或記錄在 errors）
+
+    private String fatalError; // 無法繼續讀取時的原因，之後的資料未匯入；正常結束時為 null
+
+    private List<String> errors = new ArrayList<>(); // 失敗原因（最多 MAX_ERRORS 筆）
+
+    /**
+     * 記錄一筆失敗
+     *
+     * @param record 資料的序號（從 1 開始）
+     * @param message 失敗原因
+     */
+    public void addError(long record, String message) {
+        failed++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add("第 " + record + " 筆：" + message);
+        }
+    }
+
+    /**
+     * 以純文字輸出匯入結果
+     *
+     * @return 匯入結果摘要
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("imported=").append(imported).append('\n');
+        sb.append("failed=").append(failed).append('\n');
+        sb.append("elapsedMillis=").append(elapsedMillis).append('\n');
+        if (fatalError != null) {
+            sb.append("lastRecord=").append(lastRecord).append('\n');
+            sb.append("fatalError=").append(fatalError).append('\n');
+        }
+        for (String error : errors) {
+            sb.append(error).append('\n');
+        }
+        if (failed > errors.size()) {
+            sb.append("（其餘 ").append(failed - errors.size()).append(" 筆錯誤省略）\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.announcement.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 全文檢索的查詢結果（依相關度排序）
+ */
+@Data
+@AllArgsConstructor
+public class SearchResult {
+
+    private List<AnnouncementSummary> items; // 當前頁的資料
+
+    private int totalHits; // 符合條件的公告總數
+
+    private long tookMicros; // 查詢耗時（微秒）
+}
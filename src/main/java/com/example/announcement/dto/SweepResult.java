@@ -0,0 +1,47 @@
+package com.example.announcement.dto;
+
+import lombok.Data;
+
+/**
+ * 孤兒附件清理的結果
+ */
+@Data
+public class SweepResult {
+
+    private String mode; // 孤兒文件的處理方式（quarantine 或 delete）
+
+    private long scannedFiles; // 檢查的文件數
+
+    private long orphanFiles; // 沒有被引用且超過保留期的文件數
+
+    private long orphanBytes; // 孤兒文件的大小
+
+    private long tempFiles; // 刪除的過期暫存檔數
+
+    private long purgedFiles; // 從隔離目錄永久刪除的文件數
+
+    private long reclaimedBytes; // 本次實際釋放的磁碟空間（刪除的孤兒文件、暫存檔與隔離目錄中過期的文件）
+
+    private long failures; // 處理失敗的文件數
+
+    private long elapsedMillis; // 清理耗時（毫秒）
+
+    /**
+     * 以純文字輸出清理結果
+     *
+     * @return 清理結果摘要
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("mode=").append(mode).append('\n');
+        sb.append("scannedFiles=").append(scannedFiles).append('\n');
+        sb.append("orphanFiles=").append(orphanFiles).append('\n');
+        sb.append("orphanBytes=").append(orphanBytes).append('\n');
+        sb.append("tempFiles=").append(tempFiles).append('\n');
+        sb.append("purgedFiles=").append(purgedFiles).append('\n');
+        sb.append("reclaimedBytes=").append(reclaimedBytes).append('\n');
+        sb.append("failures=").append(failures).append('\n');
+        sb.append("elapsedMillis=").append(elapsedMillis).append('\n');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.announcement.dto;
+
+import lombok.Data;
+
+/**
+ * 分段上傳的狀態，用戶端依 offset 送出下一段
+ */
+@Data
+public class UploadStatus {
+
+    private String id; // 上傳 ID
+
+    private String fileName; // 原始文件名稱
+
+    private long size; // 文件大小
+
+    private long offset; // 已接收的大小，下一段從這個位移開始
+
+    private long chunkSize; // 建議每段送出的大小
+
+    private String attachmentKey; // 完成並附加到公告後的附件鍵
+}
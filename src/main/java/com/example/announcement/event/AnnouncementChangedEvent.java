@@ -0,0 +1,38 @@
+package com.example.announcement.event;
+
+import java.util.Collections;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 公告異動事件，由 AnnouncementServiceImpl 在新增、修改、刪除公告時發布。
+ * 監聽者應使用 @TransactionalEventListener，在交易提交後才處理，避免回滾的資料被讀取。
+ */
+@Getter
+@ToString
+public class AnnouncementChangedEvent {
+
+    /**
+     * 異動類型
+     */
+    public enum Type {
+        CREATED, // 新增
+        UPDATED, // 修改
+        DELETED  // 刪除
+    }
+
+    private final Type type; // 異動類型
+
+    private final List<Integer> ids; // 異動的公告 ID
+
+    public AnnouncementChangedEvent(Type type, List<Integer> ids) {
+        this.type = type;
+        this.ids = Collections.unmodifiableList(ids);
+    }
+
+    public static AnnouncementChangedEvent of(Type type, int id) {
+        return new AnnouncementChangedEvent(type, Collections.singletonList(id));
+    }
+}
@@ -0,0 +1,407 @@
+package com.example.announcement.event;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * AnnouncementEventBroadcaster 以 Server-Sent Events 推送公告的新增、修改與刪除，取代公告看板定時輪詢列表頁。
+ * 事件在交易提交後放入環形緩衝區，並放入每個訂閱者的有界佇列，由少數發送執行緒寫出；
+ * 連線使用 Servlet 非同步處理，閒置的訂閱者不佔用請求執行緒。
+ * 斷線重連時依 Last-Event-ID 從緩衝區補送遺漏的事件，無法補送時送出 reset 事件，由用戶端重新讀取列表。
+ * 訂閱者的佇列已滿（用戶端讀取太慢）時中斷連線，不讓慢速用戶端拖慢其他訂閱者或累積記憶體。
+ * 寫出是阻塞的，用戶端停止讀取但不斷線時會佔住發送執行緒；心跳時檢查寫出超過時限的訂閱者，
+ * 中斷該執行緒的寫出並補一條發送執行緒，卡住的連線不會讓其他訂閱者收不到事件。
+ */
+@Component
+public class AnnouncementEventBroadcaster implements InitializingBean, DisposableBean {
+
+    private static final String RESET = "reset";
+
+    @Value("${sse.replay-size:256}")
+    private int replaySize; // 環形緩衝區保存的事件數
+
+    @Value("${sse.queue-size:64}")
+    private int queueSize; // 每個訂閱者等待發送的事件上限
+
+    @Value("${sse.max-subscribers:5000}")
+    private int maxSubscribers; // 同時連線的訂閱者上限
+
+    @Value("${sse.timeout-millis:1800000}")
+    private long timeoutMillis; // 連線的最長時間，逾時後由用戶端帶 Last-Event-ID 重連
+
+    @Value("${sse.retry-millis:3000}")
+    private long retryMillis; // 建議用戶端斷線後的重連間隔
+
+    @Value("${sse.sender-threads:2}")
+    private int senderThreads; // 發送執行緒數
+
+    @Value("${sse.send-timeout-millis:10000}")
+    private long sendTimeoutMillis; // 單次寫出的時限，超過時中斷連線
+
+    @Value("${sse.max-stalled-senders:32}")
+    private int maxStalledSenders; // 寫出卡住時最多補充的發送執行緒數
+
+    private Event[] ring; // 環形緩衝區，依事件 ID 取模存放
+
+    private long startId; // 啟動時的事件 ID，之前的 ID 屬於上一次啟動
+
+    private long lastId; // 最新事件的 ID，由 ring 的鎖保護
+
+    private ThreadPoolExecutor sender;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final Set<Subscriber> sending = ConcurrentHashMap.newKeySet(); // 正在寫出的訂閱者（含已移除的）
+
+    private final AtomicInteger replacedSenders = new AtomicInteger(); // 因寫出卡住而補充的發送執行緒數
+
+    private final AtomicLong sentCount = new AtomicLong(); // 已發送的事件數（含心跳）
+
+    private final AtomicLong droppedCount = new AtomicLong(); // 因佇列已滿而中斷的訂閱者數
+
+    private final AtomicLong stalledCount = new AtomicLong(); // 因寫出超過時限而中斷的訂閱者數
+
+    @Override
+    public void afterPropertiesSet() {
+        ring = new Event[replaySize];
+        // 事件 ID 從啟動時間（毫秒）開始遞增，重新啟動後的 ID 大於之前的 ID，舊的 Last-Event-ID 會收到 reset
+        startId = System.currentTimeMillis();
+        lastId = startId;
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "sse-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        sender = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+    }
+
+    /**
+     * 新增訂閱者
+     *
+     * @param lastEventId 用戶端最後收到的事件 ID（重連時的 Last-Event-ID，可選）
+     * @return SSE 連線，訂閱者已達上限時返回 null
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> {
+            subscribers.remove(subscriber);
+            emitter.complete();
+        });
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        // 在緩衝區的鎖內加入訂閱者並補送，之後發布的事件排在補送的事件後面（剛發布的事件可能重複，由用戶端依 ID 忽略）
+        synchronized (ring) {
+            subscribers.add(subscriber);
+            subscriber.offer(Event.OPEN); // 立即送出回應標頭與重連間隔，不等到第一個事件
+            replay(lastEventId).forEach(subscriber::offer);
+        }
+        subscriber.schedule();
+        return emitter;
+    }
+
+    /**
+     * 公告異動提交後推送給所有訂閱者
+     *
+     * @param event 公告異動事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnnouncementChanged(AnnouncementChangedEvent event) {
+        Event pushed;
+        synchronized (ring) {
+            pushed = new Event(++lastId, event.getType().name().toLowerCase(Locale.ROOT), toJson(event));
+            ring[(int) (pushed.id % ring.length)] = pushed;
+        }
+        broadcast(pushed);
+    }
+
+    /**
+     * 定期送出心跳（SSE 註解行），讓代理伺服器不因閒置而關閉連線，並偵測已斷線的用戶端
+     * 送出前先中斷寫出超過時限的訂閱者
+     */
+    @Scheduled(initialDelayString = "${sse.heartbeat-millis:15000}", fixedDelayString = "${sse.heartbeat-millis:15000}")
+    public void heartbeat() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : sending) {
+            subscriber.abortIfStalled(now);
+        }
+        broadcast(Event.HEARTBEAT);
+    }
+
+    /**
+     * 寫出卡住的執行緒在寫出結束前無法使用，補一條發送執行緒（有上限）
+     *
+     * @return 補充了執行緒時返回 true，寫出結束後需呼叫 releaseSender
+     */
+    private boolean replaceSender() {
+        if (replacedSenders.incrementAndGet() > maxStalledSenders) {
+            replacedSenders.decrementAndGet();
+            System.err.println("SSE 寫出卡住的連線過多，無法再補充發送執行緒");
+            return false;
+        }
+        synchronized (sender) {
+            sender.setMaximumPoolSize(sender.getMaximumPoolSize() + 1);
+            sender.setCorePoolSize(sender.getCorePoolSize() + 1);
+        }
+        return true;
+    }
+
+    private void releaseSender() {
+        synchronized (sender) {
+            sender.setCorePoolSize(sender.getCorePoolSize() - 1);
+            sender.setMaximumPoolSize(sender.getMaximumPoolSize() - 1);
+        }
+        replacedSenders.decrementAndGet();
+    }
+
+    private void broadcast(Event event) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+            subscriber.schedule();
+        }
+    }
+
+    /**
+     * 取得指定 ID 之後的事件，呼叫時需持有 ring 的鎖
+     *
+     * @return 遺漏的事件，沒有 ID 時返回空列表；
+     *         事件已不在緩衝區、超過佇列上限或 ID 無效時返回帶最新 ID 的 reset 事件
+     */
+    private List<Event> replay(String lastEventId) {
+        if (lastEventId == null || lastEventId.isEmpty()) {
+            return Collections.emptyList();
+        }
+        long after;
+        try {
+            after = Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            after = -1;
+        }
+        long missing = lastId - after;
+        if (after < startId || missing < 0 || missing > ring.length || missing >= queueSize) {
+            return Collections.singletonList(new Event(lastId, RESET, "{}"));
+        }
+        List<Event> missed = new ArrayList<>((int) missing);
+        for (long id = after + 1; id <= lastId; id++) {
+            missed.add(ring[(int) (id % ring.length)]);
+        }
+        return missed;
+    }
+
+    private static String toJson(AnnouncementChangedEvent event) {
+        return event.getIds().stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(",", "{\"type\":\"" + event.getType().name() + "\",\"ids\":[", "]}"));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getStalledCount() {
+        return stalledCount.get();
+    }
+
+    /**
+     * 關閉時結束所有連線
+     */
+    @Override
+    public void destroy() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+        sender.shutdownNow();
+    }
+
+    /**
+     * 推送的事件，data 只在發布時序列化一次，所有訂閱者共用
+     */
+    private static final class Event {
+
+        private static final Event OPEN = new Event(0, null, "open");
+
+        private static final Event HEARTBEAT = new Event(0, null, "heartbeat");
+
+        private final long id;
+
+        private final String name;
+
+        private final String data;
+
+        private Event(long id, String name, String data) {
+            this.id = id;
+            this.name = name;
+            this.data = data;
+        }
+
+        private SseEmitter.SseEventBuilder toSse(long retryMillis) {
+            if (this == OPEN) {
+                return SseEmitter.event().comment(data).reconnectTime(retryMillis);
+            }
+            if (this == HEARTBEAT) {
+                return SseEmitter.event().comment(data);
+            }
+            return SseEmitter.event().id(Long.toString(id)).name(name).data(data, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    /**
+     * 一個訂閱者：有界佇列與發送狀態，同一時間最多一條發送執行緒寫出
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<Event> queue = new ArrayBlockingQueue<>(queueSize);
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private volatile boolean closed;
+
+        private Thread sendingThread; // 正在寫出的執行緒，由 this 的鎖保護
+
+        private long sendStarted; // 開始寫出的時間（System.nanoTime）
+
+        private boolean stalled; // 寫出超過時限
+
+        private boolean replaced; // 已為卡住的寫出補充發送執行緒
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * 放入佇列，不會阻塞；佇列已滿時移除訂閱者，由發送執行緒結束連線
+         */
+        private void offer(Event event) {
+            if (closed || queue.offer(event)) {
+                return;
+            }
+            closed = true;
+            subscribers.remove(this);
+            droppedCount.incrementAndGet();
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Event event;
+                while (!closed && (event = queue.poll()) != null) {
+                    send(event);
+                    sentCount.incrementAndGet();
+                }
+                if (closed) {
+                    queue.clear();
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // 用戶端已斷線或連線已結束
+                closed = true;
+                subscribers.remove(this);
+                queue.clear();
+                emitter.completeWithError(e);
+            } finally {
+                draining.set(false);
+            }
+            // 檢查結束前放入的事件，避免遺漏
+            if (!closed && !queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        /**
+         * 寫出一個事件，記錄開始時間讓心跳檢查是否卡住
+         */
+        private void send(Event event) throws IOException {
+            synchronized (this) {
+                sendingThread = Thread.currentThread();
+                sendStarted = System.nanoTime();
+            }
+            sending.add(this);
+            try {
+                emitter.send(event.toSse(retryMillis));
+            } finally {
+                sending.remove(this);
+                boolean release;
+                synchronized (this) {
+                    sendingThread = null;
+                    release = replaced;
+                    replaced = false;
+                }
+                Thread.interrupted(); // 清除中斷狀態，執行緒回到執行緒池繼續使用
+                if (release) {
+                    releaseSender();
+                }
+            }
+            if (stalled) {
+                throw new IOException("寫出超過 " + sendTimeoutMillis + " ms");
+            }
+        }
+
+        /**
+         * 寫出超過時限時移除訂閱者並中斷寫出的執行緒
+         * 不可在這裡結束 SseEmitter：寫出期間 SseEmitter 的鎖由發送執行緒持有，改由發送執行緒在寫出結束後結束連線
+         *
+         * @param now 目前時間（System.nanoTime）
+         */
+        private void abortIfStalled(long now) {
+            synchronized (this) {
+                if (sendingThread == null || stalled
+                        || now - sendStarted < TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis)) {
+                    return;
+                }
+                stalled = true;
+                replaced = replaceSender();
+                sendingThread.interrupt(); // 容器支援時中斷阻塞的寫出
+            }
+            closed = true;
+            subscribers.remove(this);
+            stalledCount.incrementAndGet();
+            System.err.println("SSE 訂閱者寫出超過 " + sendTimeoutMillis + " ms，中斷連線");
+        }
+    }
+}
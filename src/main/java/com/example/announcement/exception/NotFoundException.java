@@ -0,0 +1,14 @@
+package com.example.announcement.exception;
+
+/**
+ * NotFoundException 表示要求的資源（公告、上傳）不存在，API 以 404 回應。
+ * 繼承 IllegalArgumentException，只處理 IllegalArgumentException 的呼叫端不需要修改。
+ */
+public class NotFoundException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    public NotFoundException(String message) {
+        super(message);
+    }
+}
@@ -2,12 +2,21 @@ package com.example.announcement.model;
 
 import java.time.LocalDate;
 
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Lob;
 import javax.persistence.Table;
+import javax.persistence.TableGenerator;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -18,14 +27,31 @@ import lombok.NoArgsConstructor;
  * 該類被註解為 JPA 實體，對應數據庫中的 announcement 表。
  */
 @Entity // 指定該類為 JPA 實體，對應數據庫表
-@Table(name = "announcement") // 指定數據庫表名為 announcement
+@Table(name = "announcement", // 指定數據庫表名為 announcement
+        indexes = {
+                @Index(name = "idx_announcement_publish_date_id", columnList = "publishDate, id"), // 列表排序與游標分頁使用的複合索引
+                @Index(name = "idx_announcement_end_date_publish_date", columnList = "endDate, publishDate") // 查詢有效公告（尚未截止）使用的複合索引
+        })
+@Cacheable // 啟用二級快取
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "announcement") // 讀寫快取：修改與刪除在交易提交後才更新快取；區域名稱不可包含「.」（Caffeine 設定以「.」分隔路徑）
+@DynamicUpdate // UPDATE 只包含有變更的欄位，只修改標題時不會重新寫入公告內容
 @Data // Lombok 註解，生成 getter、setter、toString、equals 和 hashCode 方法
 @NoArgsConstructor // Lombok 註解，生成無參構造函數
 @AllArgsConstructor // Lombok 註解，生成全參構造函數
 public class Announcement {
 
+    /**
+     * 主鍵生成器的表名、鍵值與區段大小，起始值由遷移腳本 V4__create_announcement_id_generator.sql 校正
+     */
+    public static final String ID_GENERATOR_TABLE = "id_generator";
+    public static final String ID_GENERATOR_KEY = "announcement";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id // 指定該字段為主鍵
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // 主鍵生成策略，使用數據庫自增
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "announcement_id") // 主鍵生成策略，使用表生成器（可批次寫入）
+    @TableGenerator(name = "announcement_id", table = ID_GENERATOR_TABLE,
+            pkColumnName = "sequence_name", valueColumnName = "next_val", pkColumnValue = ID_GENERATOR_KEY,
+            allocationSize = ID_ALLOCATION_SIZE) // 一次預取 50 個 ID，新增時不需要立即 INSERT 取得自增主鍵
     private Integer id; // 公告 ID，唯一標識
 
     private String title; // 公告標題
@@ -40,4 +66,8 @@ public class Announcement {
     private String createdBy; // 公告創建者，用於記錄創建公告的用戶
     
     private String uploadFile1; // 附件1路径
+
+    @Version // 樂觀鎖版本號，UPDATE 時比對，被其他人先修改時更新失敗
+    @Column(nullable = false, columnDefinition = "integer default 0") // 既有資料從 0 開始
+    private Integer version;
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.example.announcement.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * AttachmentBlob 實體類，記錄以內容雜湊保存的附件文件及其引用次數。
+ * 對應數據庫中的 attachment_blob 表。
+ */
+@Entity // 指定該類為 JPA 實體，對應數據庫表
+@Table(name = "attachment_blob") // 指定數據庫表名為 attachment_blob
+@Data // Lombok 註解，生成 getter、setter、toString、equals 和 hashCode 方法
+@NoArgsConstructor // Lombok 註解，生成無參構造函數
+@AllArgsConstructor // Lombok 註解，生成全參構造函數
+public class AttachmentBlob {
+
+    @Id // 指定該字段為主鍵
+    @Column(length = 64)
+    private String hash; // 文件內容的 SHA-256（十六進位）
+
+    private long fileSize; // 文件大小（位元組）
+
+    private int refCount; // 引用此文件的附件數量
+}
@@ -0,0 +1,281 @@
+package com.example.announcement.monitor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.announcement.datasource.ReadYourWrites;
+import com.example.announcement.datasource.ReplicaRoutingDataSource;
+import com.example.announcement.event.AnnouncementEventBroadcaster;
+import com.example.announcement.content.HtmlSanitizer;
+import com.example.announcement.storage.ChunkedUploadStore;
+import com.example.announcement.storage.ImageDerivativeStore;
+import com.example.announcement.storage.LocalAttachmentStore;
+import com.example.announcement.storage.OrphanAttachmentSweeper;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * ApplicationMetrics 將既有的統計數據（Hibernate Statistics、連線池、HTML 清理、查詢日誌、附件）註冊為指標。
+ * 指標在讀取時才向來源取值，不會額外記錄或複製數據。
+ * 在所有單例建立後才註冊，避免指標登錄表提前觸發 SessionFactory 等 Bean 的建立。
+ */
+@Component
+public class ApplicationMetrics implements SmartInitializingSingleton {
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    @Autowired
+    private ConnectionPoolMetrics connectionPoolMetrics;
+
+    @Autowired
+    private HtmlSanitizer htmlSanitizer;
+
+    @Autowired
+    private SlowQueryListener slowQueryListener;
+
+    @Autowired
+    private QueryLogWriter queryLogWriter;
+
+    @Autowired
+    private OrphanAttachmentSweeper orphanAttachmentSweeper;
+
+    @Autowired
+    private LocalAttachmentStore attachmentStore;
+
+    @Autowired
+    private ImageDerivativeStore derivativeStore;
+
+    @Autowired
+    private ChunkedUploadStore chunkedUploadStore;
+
+    @Autowired
+    private AnnouncementEventBroadcaster eventBroadcaster;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Autowired(required = false)
+    private ReplicaRoutingDataSource routingDataSource; // 讀寫分離，基準測試容器沒有
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        bindHibernate(sessionFactory.getStatistics());
+        bindConnectionPool();
+        bindSanitizer();
+        bindQueryLog();
+        bindAttachments();
+        bindRouting();
+        bindEvents();
+    }
+
+    /**
+     * Hibernate 統計：查詢、實體讀寫、flush 與快取命中（需要啟用 hibernate.generate_statistics）
+     */
+    private void bindHibernate(Statistics statistics) {
+        counter("hibernate.queries.executed", "執行的 HQL / SQL 查詢次數", statistics, Statistics::getQueryExecutionCount);
+        counter("hibernate.statements.prepared", "取得 PreparedStatement 的次數", statistics, Statistics::getPrepareStatementCount);
+        counter("hibernate.flushes", "Session flush 次數", statistics, Statistics::getFlushCount);
+        counter("hibernate.sessions.opened", "開啟 Session 的次數", statistics, Statistics::getSessionOpenCount);
+        counter("hibernate.transactions", "完成的交易次數", statistics, Statistics::getTransactionCount);
+        counter("hibernate.optimistic.failures", "樂觀鎖衝突次數", statistics, Statistics::getOptimisticFailureCount);
+
+        entityCounter("load", statistics, Statistics::getEntityLoadCount);
+        entityCounter("fetch", statistics, Statistics::getEntityFetchCount);
+        entityCounter("insert", statistics, Statistics::getEntityInsertCount);
+        entityCounter("update", statistics, Statistics::getEntityUpdateCount);
+        entityCounter("delete", statistics, Statistics::getEntityDeleteCount);
+
+        cacheCounter("hibernate.second.level.cache.requests", "hit", statistics, Statistics::getSecondLevelCacheHitCount);
+        cacheCounter("hibernate.second.level.cache.requests", "miss", statistics, Statistics::getSecondLevelCacheMissCount);
+        cacheCounter("hibernate.query.cache.requests", "hit", statistics, Statistics::getQueryCacheHitCount);
+        cacheCounter("hibernate.query.cache.requests", "miss", statistics, Statistics::getQueryCacheMissCount);
+
+        Gauge.builder("hibernate.query.execution.max", statistics, Statistics::getQueryExecutionMaxTime)
+                .description("最慢查詢的耗時")
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    /**
+     * 連線池：連線數、取得連線的等待時間與逾時次數，主庫與副本連線池以 pool 標籤區分
+     */
+    private void bindConnectionPool() {
+        for (ConnectionPoolMetrics.Pool pool : connectionPoolMetrics.getPools()) {
+            poolGauge(pool, "active", PoolStats::getActiveConnections);
+            poolGauge(pool, "idle", PoolStats::getIdleConnections);
+            poolGauge(pool, "pending", PoolStats::getPendingThreads);
+            poolGauge(pool, "total", PoolStats::getTotalConnections);
+
+            FunctionTimer.builder("db.pool.acquire", pool,
+                    ConnectionPoolMetrics.Pool::getAcquireCount, ConnectionPoolMetrics.Pool::getAcquireNanosTotal,
+                    TimeUnit.NANOSECONDS)
+                    .description("取得連線的等待時間")
+                    .tag("pool", pool.getName())
+                    .register(registry);
+            FunctionCounter.builder("db.pool.timeouts", pool, ConnectionPoolMetrics.Pool::getTimeoutCount)
+                    .description("取得連線逾時次數")
+                    .tag("pool", pool.getName())
+                    .register(registry);
+            FunctionCounter.builder("db.pool.connections.created", pool, ConnectionPoolMetrics.Pool::getCreatedCount)
+                    .description("建立實體連線次數")
+                    .tag("pool", pool.getName())
+                    .register(registry);
+        }
+    }
+
+    /**
+     * 讀寫分離：取得主庫、副本連線的次數，未設定副本時不註冊
+     */
+    private void bindRouting() {
+        if (routingDataSource == null || !readYourWrites.isEnabled()) {
+            return;
+        }
+        FunctionCounter.builder("db.routing.connections", routingDataSource, ReplicaRoutingDataSource::getPrimaryCount)
+                .description("依交易唯讀標記取得的連線數")
+                .tag("target", "primary")
+                .register(registry);
+        FunctionCounter.builder("db.routing.connections", routingDataSource, ReplicaRoutingDataSource::getReplicaCount)
+                .description("依交易唯讀標記取得的連線數")
+                .tag("target", "replica")
+                .register(registry);
+        FunctionCounter.builder("db.routing.sticky", routingDataSource, ReplicaRoutingDataSource::getStickyCount)
+                .description("唯讀交易因剛寫入而改讀主庫的次數")
+                .register(registry);
+    }
+
+    /**
+     * 公告異動推送（SSE）：訂閱者數、發送的事件數與因讀取太慢或寫出卡住而中斷的訂閱者數
+     */
+    private void bindEvents() {
+        Gauge.builder("sse.subscribers", eventBroadcaster, AnnouncementEventBroadcaster::getSubscriberCount)
+                .description("目前連線的訂閱者數")
+                .register(registry);
+        FunctionCounter.builder("sse.events.sent", eventBroadcaster, AnnouncementEventBroadcaster::getSentCount)
+                .description("發送的事件數（含心跳）")
+                .register(registry);
+        FunctionCounter.builder("sse.subscribers.dropped", eventBroadcaster, AnnouncementEventBroadcaster::getDroppedCount)
+                .description("佇列已滿而中斷的訂閱者數")
+                .register(registry);
+        FunctionCounter.builder("sse.subscribers.stalled", eventBroadcaster, AnnouncementEventBroadcaster::getStalledCount)
+                .description("寫出超過時限而中斷的訂閱者數")
+                .register(registry);
+    }
+
+    /**
+     * HTML 清理：實際解析的次數與耗時、內容大小與快取命中
+     */
+    private void bindSanitizer() {
+        FunctionTimer.builder("sanitizer.sanitize", htmlSanitizer,
+                HtmlSanitizer::getSanitizeCount, HtmlSanitizer::getSanitizeNanos, TimeUnit.NANOSECONDS)
+                .description("HTML 清理的耗時（不含快取命中）")
+                .register(registry);
+        FunctionCounter.builder("sanitizer.bytes", htmlSanitizer, HtmlSanitizer::getSanitizeBytes)
+                .description("HTML 清理的內容大小（UTF-8）")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("sanitizer.cache.hits", htmlSanitizer, HtmlSanitizer::getCacheHits)
+                .description("HTML 清理結果快取命中次數")
+                .register(registry);
+    }
+
+    /**
+     * 查詢日誌：慢查詢次數與因佇列已滿而丟棄的日誌
+     */
+    private void bindQueryLog() {
+        FunctionCounter.builder("db.query.slow", slowQueryListener, SlowQueryListener::getSlowCount)
+                .description("耗時超過門檻的 SQL 次數")
+                .register(registry);
+        FunctionCounter.builder("db.query.log.dropped", queryLogWriter, QueryLogWriter::getDroppedCount)
+                .description("佇列已滿而丟棄的查詢日誌")
+                .register(registry);
+        Gauge.builder("db.query.log.queued", queryLogWriter, QueryLogWriter::getQueuedCount)
+                .description("等待輸出的查詢日誌")
+                .register(registry);
+    }
+
+    /**
+     * 附件：上傳保存的次數、耗時與大小（以 rate() 計算每秒上傳量），以及孤兒附件清理釋放的空間
+     */
+    private void bindAttachments() {
+        FunctionTimer.builder("announcement.upload", attachmentStore,
+                LocalAttachmentStore::getStoreCount, LocalAttachmentStore::getStoreNanos, TimeUnit.NANOSECONDS)
+                .description("附件保存的耗時（計算雜湊並寫入磁碟）")
+                .register(registry);
+        FunctionCounter.builder("announcement.upload.bytes", attachmentStore, LocalAttachmentStore::getStoredBytes)
+                .description("已保存的附件大小")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("announcement.upload.chunked.bytes", chunkedUploadStore, ChunkedUploadStore::getReceivedBytes)
+                .description("分段上傳接收的內容大小")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("announcement.upload.chunked.completed", chunkedUploadStore, ChunkedUploadStore::getCompletedCount)
+                .description("SHA-256 驗證通過的分段上傳數")
+                .register(registry);
+        FunctionCounter.builder("attachment.sweep.reclaimed", orphanAttachmentSweeper,
+                OrphanAttachmentSweeper::getTotalReclaimedBytes)
+                .description("孤兒附件清理釋放的磁碟空間")
+                .baseUnit("bytes")
+                .register(registry);
+
+        FunctionCounter.builder("attachment.derivative.requests", derivativeStore, ImageDerivativeStore::getHitCount)
+                .description("縮圖請求次數")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("attachment.derivative.requests", derivativeStore, ImageDerivativeStore::getCollapsedCount)
+                .description("縮圖請求次數")
+                .tag("result", "collapsed")
+                .register(registry);
+        FunctionTimer.builder("attachment.derivative.render", derivativeStore,
+                ImageDerivativeStore::getRenderCount, ImageDerivativeStore::getRenderNanos, TimeUnit.NANOSECONDS)
+                .description("產生縮圖的耗時（解碼、縮小並寫入磁碟）")
+                .register(registry);
+        FunctionCounter.builder("attachment.derivative.evicted", derivativeStore, ImageDerivativeStore::getEvictedCount)
+                .description("超過大小上限而刪除的縮圖數")
+                .register(registry);
+        Gauge.builder("attachment.derivative.bytes", derivativeStore, ImageDerivativeStore::getTotalBytes)
+                .description("縮圖目錄的大小")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private void counter(String name, String description, Statistics statistics, ToDoubleFunction<Statistics> f) {
+        FunctionCounter.builder(name, statistics, f).description(description).register(registry);
+    }
+
+    private void entityCounter(String operation, Statistics statistics, ToDoubleFunction<Statistics> f) {
+        FunctionCounter.builder("hibernate.entities", statistics, f)
+                .description("實體操作次數")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+    private void cacheCounter(String name, String result, Statistics statistics, ToDoubleFunction<Statistics> f) {
+        FunctionCounter.builder(name, statistics, f)
+                .description("快取查詢次數")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private void poolGauge(ConnectionPoolMetrics.Pool pool, String state, ToDoubleFunction<PoolStats> f) {
+        Gauge.builder("db.pool.connections", pool.getPoolStats(), f)
+                .description("連線池連線數")
+                .tag("pool", pool.getName())
+                .tag("state", state)
+                .register(registry);
+    }
+}
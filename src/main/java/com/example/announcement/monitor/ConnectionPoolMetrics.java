@@ -0,0 +1,156 @@
+package com.example.announcement.monitor;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * ConnectionPoolMetrics 收集 HikariCP 連線池的統計數據，主庫與副本連線池各自記錄。
+ * 包含連線池狀態（使用中、閒置、等待中）以及取得連線的等待時間，用於評估連線池大小是否足夠。
+ */
+@Component
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+
+    private final List<Pool> pools = new CopyOnWriteArrayList<>(); // 依建立順序（主庫在前）
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        Pool pool = new Pool(poolName, poolStats);
+        pools.add(pool);
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                pool.createdCount.incrementAndGet();
+                pool.createdMillisTotal.addAndGet(connectionCreatedMillis);
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                pool.acquireCount.incrementAndGet();
+                pool.acquireNanosTotal.addAndGet(elapsedAcquiredNanos);
+                pool.acquireNanosMax.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                pool.usageCount.incrementAndGet();
+                pool.usageMillisTotal.addAndGet(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                pool.timeoutCount.incrementAndGet();
+            }
+        };
+    }
+
+    /**
+     * 輸出所有連線池的統計數據（純文字，每行一個 key=value，每個連線池以 pool= 開頭）
+     *
+     * @return 統計數據文字
+     */
+    public String report() {
+        if (pools.isEmpty()) {
+            return "pool=not-started\n";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Pool pool : pools) {
+            pool.report(sb);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 獲取已啟動的連線池
+     *
+     * @return 連線池統計，依建立順序
+     */
+    public List<Pool> getPools() {
+        return Collections.unmodifiableList(pools);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static String format(double value) {
+        return String.format("%.3f", value);
+    }
+
+    /**
+     * 單一連線池的統計數據
+     */
+    public static final class Pool {
+
+        private final String name;
+
+        private final PoolStats poolStats; // 由 HikariCP 提供的連線池即時狀態
+
+        private final AtomicLong acquireCount = new AtomicLong(); // 取得連線次數
+        private final AtomicLong acquireNanosTotal = new AtomicLong(); // 取得連線的累計等待時間
+        private final AtomicLong acquireNanosMax = new AtomicLong(); // 取得連線的最長等待時間
+        private final AtomicLong timeoutCount = new AtomicLong(); // 取得連線逾時次數
+        private final AtomicLong usageCount = new AtomicLong(); // 歸還連線次數
+        private final AtomicLong usageMillisTotal = new AtomicLong(); // 連線累計借用時間
+        private final AtomicLong createdCount = new AtomicLong(); // 建立實體連線次數
+        private final AtomicLong createdMillisTotal = new AtomicLong(); // 建立實體連線的累計時間
+
+        private Pool(String name, PoolStats poolStats) {
+            this.name = name;
+            this.poolStats = poolStats;
+        }
+
+        private void report(StringBuilder sb) {
+            long acquires = acquireCount.get();
+            long usages = usageCount.get();
+            long created = createdCount.get();
+
+            sb.append("pool=").append(name).append('\n');
+            sb.append("connections.active=").append(poolStats.getActiveConnections()).append('\n');
+            sb.append("connections.idle=").append(poolStats.getIdleConnections()).append('\n');
+            sb.append("connections.total=").append(poolStats.getTotalConnections()).append('\n');
+            sb.append("connections.pending=").append(poolStats.getPendingThreads()).append('\n');
+            sb.append("connections.min=").append(poolStats.getMinConnections()).append('\n');
+            sb.append("connections.max=").append(poolStats.getMaxConnections()).append('\n');
+            sb.append("acquire.count=").append(acquires).append('\n');
+            sb.append("acquire.wait.avg.ms=").append(format(acquires == 0 ? 0 : toMillis(acquireNanosTotal.get()) / acquires)).append('\n');
+            sb.append("acquire.wait.max.ms=").append(format(toMillis(acquireNanosMax.get()))).append('\n');
+            sb.append("acquire.timeouts=").append(timeoutCount.get()).append('\n');
+            sb.append("usage.avg.ms=").append(format(usages == 0 ? 0 : (double) usageMillisTotal.get() / usages)).append('\n');
+            sb.append("created.count=").append(created).append('\n');
+            sb.append("created.avg.ms=").append(format(created == 0 ? 0 : (double) createdMillisTotal.get() / created)).append('\n');
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public PoolStats getPoolStats() {
+            return poolStats;
+        }
+
+        public long getAcquireCount() {
+            return acquireCount.get();
+        }
+
+        public long getAcquireNanosTotal() {
+            return acquireNanosTotal.get();
+        }
+
+        public long getTimeoutCount() {
+            return timeoutCount.get();
+        }
+
+        public long getCreatedCount() {
+            return createdCount.get();
+        }
+    }
+}
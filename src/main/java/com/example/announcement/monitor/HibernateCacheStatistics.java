@@ -0,0 +1,65 @@
+package com.example.announcement.monitor;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * HibernateCacheStatistics 輸出 Hibernate 二級快取與查詢快取的命中率，用於調整快取大小與過期時間。
+ * 需要啟用 hibernate.generate_statistics（database.properties 的 db.cache.statistics）。
+ */
+@Component
+public class HibernateCacheStatistics {
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    /**
+     * 以 key=value 文字輸出統計數據，包含整體與各快取區域的命中、未命中與寫入次數
+     *
+     * @return 統計數據
+     */
+    public String report() {
+        Statistics statistics = sessionFactory.getStatistics();
+        StringBuilder sb = new StringBuilder();
+        sb.append("statisticsEnabled=").append(statistics.isStatisticsEnabled()).append('\n');
+
+        sb.append("secondLevelCache.hits=").append(statistics.getSecondLevelCacheHitCount()).append('\n');
+        sb.append("secondLevelCache.misses=").append(statistics.getSecondLevelCacheMissCount()).append('\n');
+        sb.append("secondLevelCache.puts=").append(statistics.getSecondLevelCachePutCount()).append('\n');
+        sb.append("secondLevelCache.hitRatio=").append(ratio(statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount())).append('\n');
+
+        sb.append("queryCache.hits=").append(statistics.getQueryCacheHitCount()).append('\n');
+        sb.append("queryCache.misses=").append(statistics.getQueryCacheMissCount()).append('\n');
+        sb.append("queryCache.puts=").append(statistics.getQueryCachePutCount()).append('\n');
+        sb.append("queryCache.hitRatio=").append(ratio(statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount())).append('\n');
+        sb.append("updateTimestamps.hits=").append(statistics.getUpdateTimestampsCacheHitCount()).append('\n');
+        sb.append("updateTimestamps.misses=").append(statistics.getUpdateTimestampsCacheMissCount()).append('\n');
+
+        sb.append("queries.executed=").append(statistics.getQueryExecutionCount()).append('\n');
+        sb.append("queries.maxTimeMillis=").append(statistics.getQueryExecutionMaxTime()).append('\n');
+        sb.append("entities.loaded=").append(statistics.getEntityLoadCount()).append('\n');
+        sb.append("entities.fetched=").append(statistics.getEntityFetchCount()).append('\n');
+
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region == null) {
+                continue;
+            }
+            String prefix = "region." + regionName + ".";
+            sb.append(prefix).append("hits=").append(region.getHitCount()).append('\n');
+            sb.append(prefix).append("misses=").append(region.getMissCount()).append('\n');
+            sb.append(prefix).append("puts=").append(region.getPutCount()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.announcement.monitor;
+
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * MethodMetricsAspect 統計 Service 與 DAO 公開方法的耗時（p50 / p95 / p99）。
+ * 附件上傳的統計由 LocalAttachmentStore 自行記錄（避免 AttachmentStore 被代理），在 ApplicationMetrics 中註冊。
+ */
+@Aspect
+@Component
+public class MethodMetricsAspect {
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Around("within(com.example.announcement.service..*) || within(com.example.announcement.dao..*)")
+    public Object timeMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            Class<?> targetClass = joinPoint.getTarget().getClass();
+            Timer.builder("announcement.method")
+                    .description("Service 與 DAO 方法的耗時")
+                    .tag("layer", targetClass.getName().contains(".dao.") ? "dao" : "service")
+                    .tag("class", targetClass.getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
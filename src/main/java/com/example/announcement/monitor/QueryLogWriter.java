@@ -0,0 +1,84 @@
+package com.example.announcement.monitor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * QueryLogWriter 以背景執行緒輸出查詢日誌，請求執行緒只需將日誌放入有界佇列，不會等待主控台輸出。
+ * 佇列已滿時直接丟棄並計數，避免日誌量暴增時拖慢請求或耗盡記憶體。
+ */
+@Component
+public class QueryLogWriter implements DisposableBean {
+
+    private final BlockingQueue<String> queue;
+
+    private final Thread writer;
+
+    private final AtomicLong written = new AtomicLong(); // 已輸出的日誌數
+
+    private final AtomicLong dropped = new AtomicLong(); // 佇列已滿而丟棄的日誌數
+
+    private volatile boolean running = true;
+
+    public QueryLogWriter(@Value("${db.query-log.queue-size:1000}") int queueSize) {
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.writer = new Thread(this::drain, "query-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * 放入一筆日誌，不會阻塞
+     *
+     * @param entry 日誌內容
+     * @return 是否放入佇列（佇列已滿時返回 false）
+     */
+    public boolean offer(String entry) {
+        if (queue.offer(entry)) {
+            return true;
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            try {
+                String entry = queue.poll(1, TimeUnit.SECONDS);
+                if (entry != null) {
+                    System.out.println(entry);
+                    written.incrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+        }
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * 關閉時輸出佇列中剩餘的日誌
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
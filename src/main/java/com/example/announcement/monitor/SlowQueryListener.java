@@ -0,0 +1,105 @@
+package com.example.announcement.monitor;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+/**
+ * SlowQueryListener 記錄耗時超過門檻的查詢，以及按比例抽樣的查詢，包含 SQL、綁定參數與耗時。
+ * 由 DatabaseConfig 以 datasource-proxy 包裝連線池後掛上，日誌交由 QueryLogWriter 非同步輸出。
+ * 未達門檻且未被抽中的查詢只做一次比較，不會組裝日誌內容。
+ */
+@Component
+public class SlowQueryListener implements QueryExecutionListener {
+
+    private static final int MAX_PARAMETER_LENGTH = 100; // 參數值輸出的最大長度，避免公告內容佔滿日誌
+
+    @Autowired
+    private QueryLogWriter queryLogWriter;
+
+    @Value("${db.query-log.slow-threshold-ms:500}")
+    private long slowThresholdMillis; // 慢查詢門檻（毫秒），小於 0 表示停用
+
+    @Value("${db.query-log.sample-rate:0}")
+    private double sampleRate; // 抽樣比例（0 ~ 1），0 表示不抽樣
+
+    private final AtomicLong slowCount = new AtomicLong(); // 慢查詢次數
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsed = execInfo.getElapsedTime();
+        String kind;
+        if (slowThresholdMillis >= 0 && elapsed >= slowThresholdMillis) {
+            slowCount.incrementAndGet();
+            kind = "SLOW";
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            kind = "SAMPLE";
+        } else {
+            return;
+        }
+        queryLogWriter.offer(format(kind, execInfo, queryInfoList));
+    }
+
+    private static String format(String kind, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("[SQL ").append(kind).append("] ").append(execInfo.getElapsedTime()).append(" ms");
+        sb.append(" thread=").append(Thread.currentThread().getName());
+        sb.append(" connection=").append(execInfo.getConnectionId());
+        if (execInfo.isBatch()) {
+            sb.append(" batch=").append(execInfo.getBatchSize());
+        }
+        if (!execInfo.isSuccess()) {
+            Throwable error = execInfo.getThrowable();
+            sb.append(" error=").append(error == null ? "unknown" : error.getMessage());
+        }
+        for (QueryInfo queryInfo : queryInfoList) {
+            sb.append("\n  ").append(queryInfo.getQuery());
+            List<List<ParameterSetOperation>> parametersList = queryInfo.getParametersList();
+            if (!parametersList.isEmpty()) {
+                // 批次只輸出第一組參數
+                appendParameters(sb, parametersList.get(0));
+                if (parametersList.size() > 1) {
+                    sb.append(" ... (").append(parametersList.size()).append(" 組參數)");
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendParameters(StringBuilder sb, List<ParameterSetOperation> parameters) {
+        sb.append("\n  params=[");
+        for (int i = 0; i < parameters.size(); i++) {
+            Object[] args = parameters.get(i).getArgs();
+            if (i > 0) {
+                sb.append(", ");
+            }
+            if (ParameterSetOperation.isSetNullParameterOperation(parameters.get(i))) {
+                sb.append("null");
+            } else {
+                String value = args.length > 1 ? String.valueOf(args[1]) : "";
+                if (value.length() > MAX_PARAMETER_LENGTH) {
+                    value = value.substring(0, MAX_PARAMETER_LENGTH) + "...(" + value.length() + " 字元)";
+                }
+                sb.append(value);
+            }
+        }
+        sb.append(']');
+    }
+
+    public long getSlowCount() {
+        return slowCount.get();
+    }
+}
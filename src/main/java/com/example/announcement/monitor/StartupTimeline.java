@@ -0,0 +1,201 @@
+package com.example.announcement.monitor;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+/**
+ * StartupTimeline 記錄 Spring 容器啟動各階段與各 Bean 建立的耗時，容器啟動完成後輸出報告。
+ * 由 StartupTimingInitializer 在容器 refresh 前設定為容器的 ApplicationStartup。
+ * Bean 的總耗時包含建立其依賴的時間，本身耗時扣除巢狀的步驟，報告依本身耗時排序。
+ */
+public class StartupTimeline implements ApplicationStartup, ApplicationListener<ContextRefreshedEvent> {
+
+    private static final int TOP_BEANS = 10; // 報告列出的最慢 Bean 數
+
+    private final ApplicationContext context;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final ThreadLocal<Deque<Step>> running = ThreadLocal.withInitial(ArrayDeque::new); // 每條執行緒進行中的步驟
+
+    private final List<Step> completed = new ArrayList<>(); // 已結束的步驟，輸出報告後清空
+
+    private volatile Step refresh; // 容器 refresh 的步驟，發布 ContextRefreshedEvent 時尚未結束
+
+    private volatile String report = "";
+
+    public StartupTimeline(ApplicationContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public StartupStep start(String name) {
+        Deque<Step> stack = running.get();
+        Step step = new Step(sequence.incrementAndGet(), name, stack.peek(), stack);
+        stack.push(step);
+        if ("spring.context.refresh".equals(name)) {
+            refresh = step;
+        }
+        return step;
+    }
+
+    /**
+     * 容器啟動完成後輸出報告（子容器的事件也會傳到父容器，只處理自己的容器）
+     */
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (event.getApplicationContext() != context) {
+            return;
+        }
+        synchronized (completed) {
+            report = buildReport();
+            completed.clear();
+        }
+        System.out.print(report);
+    }
+
+    /**
+     * 最近一次啟動的耗時報告
+     *
+     * @return 耗時報告（純文字）
+     */
+    public String report() {
+        return report;
+    }
+
+    private String buildReport() {
+        long refreshNanos = refresh == null ? 0 : System.nanoTime() - refresh.startNanos;
+        Map<String, Long> phases = new LinkedHashMap<>(); // 步驟名稱 -> 總耗時
+        Map<String, long[]> beans = new LinkedHashMap<>(); // Bean 名稱 -> [本身耗時, 總耗時]
+        for (Step step : completed) {
+            if (step.beanName != null) {
+                String key = "spring.beans.instantiate".equals(step.name) ? step.beanName
+                        : step.beanName + " (" + step.name.substring(step.name.lastIndexOf('.') + 1) + ")";
+                long[] times = beans.computeIfAbsent(key, k -> new long[2]);
+                times[0] += step.durationNanos - step.childNanos;
+                times[1] += step.durationNanos;
+            } else {
+                phases.merge(step.name, step.durationNanos, Long::sum);
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(context.getParent() == null ? "根容器" : "DispatcherServlet 容器")
+                .append(" 啟動耗時 ").append(millis(refreshNanos)).append(" ms（JVM 已運行 ").append(ManagementFactory.getRuntimeMXBean().getUptime()).append(" ms）\n");
+        phases.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(phase -> sb.append("  階段 ").append(phase.getKey()).append(' ')
+                        .append(millis(phase.getValue())).append(" ms\n"));
+        beans.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]))
+                .limit(TOP_BEANS)
+                .forEach(bean -> sb.append("  Bean ").append(bean.getKey()).append(' ')
+                        .append(millis(bean.getValue()[0])).append(" ms（含依賴 ")
+                        .append(millis(bean.getValue()[1])).append(" ms）\n"));
+        return sb.toString();
+    }
+
+    private static long millis(long nanos) {
+        return nanos / 1_000_000;
+    }
+
+    /**
+     * 一個啟動步驟，結束時將耗時計入上層步驟的巢狀耗時
+     */
+    private class Step implements StartupStep {
+
+        private final long id;
+
+        private final String name;
+
+        private final Step parent;
+
+        private final Deque<Step> stack;
+
+        private final long startNanos = System.nanoTime();
+
+        private final List<Tag> tags = new ArrayList<>();
+
+        private String beanName;
+
+        private long durationNanos;
+
+        private long childNanos; // 巢狀步驟的耗時總和
+
+        Step(long id, String name, Step parent, Deque<Step> stack) {
+            this.id = id;
+            this.name = name;
+            this.parent = parent;
+            this.stack = stack;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getParentId() {
+            return parent == null ? null : parent.id;
+        }
+
+        @Override
+        public StartupStep tag(String key, String value) {
+            if ("beanName".equals(key)) {
+                beanName = value;
+            }
+            tags.add(new Tag() {
+                @Override
+                public String getKey() {
+                    return key;
+                }
+
+                @Override
+                public String getValue() {
+                    return value;
+                }
+            });
+            return this;
+        }
+
+        @Override
+        public StartupStep tag(String key, Supplier<String> value) {
+            return tag(key, value.get());
+        }
+
+        @Override
+        public Tags getTags() {
+            return tags::iterator;
+        }
+
+        @Override
+        public void end() {
+            durationNanos = System.nanoTime() - startNanos;
+            stack.remove(this);
+            if (parent != null) {
+                parent.childNanos += durationNanos;
+            }
+            synchronized (completed) {
+                completed.add(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.announcement.monitor;
+
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * StartupTimingInitializer 在容器 refresh 前掛上 StartupTimeline，記錄啟動各階段的耗時。
+ * 在 web.xml 以 globalInitializerClasses 設定，根容器與 DispatcherServlet 容器各自記錄。
+ */
+public class StartupTimingInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    @Override
+    public void initialize(ConfigurableApplicationContext context) {
+        StartupTimeline timeline = new StartupTimeline(context);
+        context.setApplicationStartup(timeline);
+        context.addApplicationListener(timeline);
+        // web.xml 使用的容器每次 refresh 重新建立 BeanFactory，不會沿用容器的 ApplicationStartup，需另外設定才會記錄各 Bean 的耗時
+        context.addBeanFactoryPostProcessor(beanFactory -> beanFactory.setApplicationStartup(timeline));
+    }
+}
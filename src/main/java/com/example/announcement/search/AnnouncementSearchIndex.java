@@ -0,0 +1,365 @@
+package com.example.announcement.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.jsoup.Jsoup;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.announcement.dao.AnnouncementDAO;
+import com.example.announcement.datasource.ReadYourWrites;
+import com.example.announcement.dto.AnnouncementSummary;
+import com.example.announcement.dto.SearchResult;
+import com.example.announcement.event.AnnouncementChangedEvent;
+import com.example.announcement.model.Announcement;
+
+/**
+ * AnnouncementSearchIndex 在記憶體中保存公告標題與內容的倒排索引，搜尋時不需要查詢資料庫。
+ * 啟動時從資料庫逐段建立，公告新增、修改、刪除提交後增量更新。
+ * 以 BM25 計算相關度，標題中的詞權重較高；查詢的每個詞都必須出現（AND）。
+ */
+@Component
+public class AnnouncementSearchIndex implements SmartInitializingSingleton {
+
+    private static final double K1 = 1.2; // BM25 詞頻飽和參數
+
+    private static final double B = 0.75; // BM25 文件長度正規化參數
+
+    private static final int MAX_QUERY_TERMS = 32; // 查詢詞數上限，避免過長的查詢佔用過多時間
+
+    @Autowired
+    private AnnouncementDAO announcementDAO;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReadYourWrites readYourWrites; // 建立與更新索引時讀取主庫
+
+    @Value("${search.title-weight:3}")
+    private int titleWeight; // 標題中的詞以此倍數計算詞頻
+
+    @Value("${search.build-chunk-size:500}")
+    private int buildChunkSize; // 建立索引時每次讀取的公告數
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Map<Integer, Integer>> postings = new HashMap<>(); // 詞 -> (公告 ID -> 詞頻)
+
+    private final Map<Integer, IndexedDocument> documents = new HashMap<>(); // 公告 ID -> 已索引的公告
+
+    private long totalLength; // 所有公告的詞數總和，用於計算平均長度
+
+    private volatile long buildMillis = -1; // 啟動時建立索引的耗時，-1 表示尚未建立
+
+    /**
+     * 啟動時從資料庫建立索引
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // 資料庫暫時無法連線時，之後的異動仍會增量加入索引
+            System.err.println("建立公告搜尋索引失敗: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 從資料庫重新建立整個索引，按 ID 逐段讀取，每段讀取後清空 Session 以控制記憶體用量
+     * 索引由所有請求共用，讀取主庫，不使用可能落後的副本
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+
+            int lastId = 0;
+            while (true) {
+                int afterId = lastId;
+                List<Announcement> chunk = readYourWrites.onPrimary(() -> template.execute(
+                        status -> announcementDAO.getAnnouncementsAfterId(afterId, buildChunkSize)));
+                if (chunk == null || chunk.isEmpty()) {
+                    break;
+                }
+                for (Announcement announcement : chunk) {
+                    add(announcement);
+                }
+                lastId = chunk.get(chunk.size() - 1).getId();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        buildMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("公告搜尋索引已建立：" + documents.size() + " 筆公告，" + postings.size() + " 個詞，耗時 "
+                + buildMillis + " ms");
+    }
+
+    /**
+     * 公告異動提交後更新索引
+     * 新增與修改以新的交易重新讀取公告，避免加入已回滾的資料
+     * 兩個事件同時處理時，較早讀取的舊版本可能較晚取得寫入鎖，因此比對版本號，不以舊版本覆蓋較新的索引
+     *
+     * @param event 公告異動事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnnouncementChanged(AnnouncementChangedEvent event) {
+        if (event.getType() == AnnouncementChangedEvent.Type.DELETED) {
+            lock.writeLock().lock();
+            try {
+                for (Integer id : event.getIds()) {
+                    remove(id);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        // 提交後原交易的資源仍綁定在執行緒上，需要開啟新的交易
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(true);
+        List<Announcement> announcements = readYourWrites.onPrimary(
+                () -> template.execute(status -> announcementDAO.getByIds(event.getIds())));
+
+        Map<Integer, Announcement> loaded = new HashMap<>();
+        if (announcements != null) {
+            for (Announcement announcement : announcements) {
+                loaded.put(announcement.getId(), announcement);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Integer id : event.getIds()) {
+                Announcement announcement = loaded.get(id);
+                if (announcement == null) {
+                    remove(id); // 讀取時已被刪除
+                    continue;
+                }
+                IndexedDocument indexed = documents.get(id);
+                if (indexed != null && isOlder(announcement.getVersion(), indexed.version)) {
+                    continue; // 已索引較新的版本
+                }
+                remove(id);
+                add(announcement);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 搜尋公告，依相關度排序，相關度相同時較新的公告在前
+     *
+     * @param query      查詢文字
+     * @param pageNumber 當前頁碼（從 0 開始）
+     * @param pageSize   每頁顯示的記錄數
+     * @return 當前頁的公告摘要與符合條件的總數
+     */
+    public SearchResult search(String query, int pageNumber, int pageSize) {
+        long start = System.nanoTime();
+        Set<String> terms = new LinkedHashSet<>(SearchTokenizer.tokenizeForQuery(query));
+        if (terms.isEmpty()) {
+            return new SearchResult(Collections.emptyList(), 0, 0);
+        }
+
+        List<ScoredDocument> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            // 依文件數由少到多排列，從最少的詞開始比對可減少檢查次數
+            List<Map<Integer, Integer>> termPostings = new ArrayList<>();
+            for (String term : terms) {
+                if (termPostings.size() >= MAX_QUERY_TERMS) {
+                    break;
+                }
+                Map<Integer, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    return new SearchResult(Collections.emptyList(), 0, (System.nanoTime() - start) / 1000);
+                }
+                termPostings.add(posting);
+            }
+            termPostings.sort(Comparator.comparingInt(Map::size));
+
+            int documentCount = documents.size();
+            double averageLength = documentCount == 0 ? 1 : (double) totalLength / documentCount;
+            double[] idf = new double[termPostings.size()];
+            for (int i = 0; i < idf.length; i++) {
+                int df = termPostings.get(i).size();
+                idf[i] = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+            }
+
+            for (Map.Entry<Integer, Integer> candidate : termPostings.get(0).entrySet()) {
+                IndexedDocument document = documents.get(candidate.getKey());
+                double norm = K1 * (1 - B + B * document.length / averageLength);
+                double score = 0;
+                boolean matched = true;
+                for (int i = 0; i < termPostings.size(); i++) {
+                    Integer tf = i == 0 ? candidate.getValue() : termPostings.get(i).get(candidate.getKey());
+                    if (tf == null) {
+                        matched = false;
+                        break;
+                    }
+                    score += idf[i] * tf * (K1 + 1) / (tf + norm);
+                }
+                if (matched) {
+                    hits.add(new ScoredDocument(document.summary, score));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(Comparator.comparingDouble((ScoredDocument hit) -> hit.score).reversed()
+                .thenComparing(hit -> hit.summary.getPublishDate(), Comparator.reverseOrder())
+                .thenComparing(hit -> hit.summary.getId(), Comparator.reverseOrder()));
+
+        int from = Math.min((int) Math.min((long) pageNumber * pageSize, Integer.MAX_VALUE), hits.size());
+        int to = Math.min(from + pageSize, hits.size());
+        List<AnnouncementSummary> items = new ArrayList<>(to - from);
+        for (ScoredDocument hit : hits.subList(from, to)) {
+            items.add(hit.summary);
+        }
+        return new SearchResult(items, hits.size(), (System.nanoTime() - start) / 1000);
+    }
+
+    /**
+     * 以 key=value 文字輸出索引的統計數據
+     *
+     * @return 統計數據
+     */
+    public String report() {
+        lock.readLock().lock();
+        try {
+            StringBuilder sb = new StringBuilder();
+            sb.append("documents=").append(documents.size()).append('\n');
+            sb.append("terms=").append(postings.size()).append('\n');
+            sb.append("totalLength=").append(totalLength).append('\n');
+            sb.append("buildMillis=").append(buildMillis).append('\n');
+            return sb.toString();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 將公告加入索引，呼叫前需持有寫入鎖
+     *
+     * @param announcement 公告對象
+     */
+    private void add(Announcement announcement) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String term : SearchTokenizer.tokenizeForIndex(announcement.getTitle())) {
+            frequencies.merge(term, titleWeight, Integer::sum);
+            length += titleWeight;
+        }
+        String content = announcement.getContent();
+        if (content != null && !content.isEmpty()) {
+            // 內容已在保存時清理，這裡只取出純文字
+            for (String term : SearchTokenizer.tokenizeForIndex(Jsoup.parse(content).text())) {
+                frequencies.merge(term, 1, Integer::sum);
+                length++;
+            }
+        }
+
+        Integer id = announcement.getId();
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), key -> new HashMap<>()).put(id, entry.getValue());
+        }
+        AnnouncementSummary summary = new AnnouncementSummary(id, announcement.getTitle(),
+                announcement.getPublishDate(), announcement.getEndDate(), announcement.getCreatedBy());
+        documents.put(id, new IndexedDocument(summary, announcement.getVersion(), length,
+                frequencies.keySet().toArray(new String[0])));
+        totalLength += length;
+    }
+
+    /**
+     * 從索引移除公告，呼叫前需持有寫入鎖
+     *
+     * @param id 公告 ID
+     */
+    private void remove(Integer id) {
+        IndexedDocument document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms) {
+            Map<Integer, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= document.length;
+    }
+
+    /**
+     * 版本號是否較舊，任一方沒有版本號時視為不較舊
+     *
+     * @param version        讀取到的版本號
+     * @param indexedVersion 已索引的版本號
+     * @return 是否較舊
+     */
+    private static boolean isOlder(Integer version, Integer indexedVersion) {
+        return version != null && indexedVersion != null && version < indexedVersion;
+    }
+
+    /**
+     * 已索引的公告：列表顯示用的摘要、版本號、詞數，以及包含的詞（移除時使用）
+     */
+    private static class IndexedDocument {
+
+        private final AnnouncementSummary summary;
+
+        private final Integer version; // 公告的 @Version，避免以較舊的讀取結果覆蓋
+
+        private final int length;
+
+        private final String[] terms;
+
+        IndexedDocument(AnnouncementSummary summary, Integer version, int length, String[] terms) {
+            this.summary = summary;
+            this.version = version;
+            this.length = length;
+            this.terms = terms;
+        }
+    }
+
+    private static class ScoredDocument {
+
+        private final AnnouncementSummary summary;
+
+        private final double score;
+
+        ScoredDocument(AnnouncementSummary summary, double score) {
+            this.summary = summary;
+            this.score = score;
+        }
+    }
+}
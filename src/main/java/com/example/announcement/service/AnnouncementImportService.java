@@ -0,0 +1,33 @@
+package com.example.announcement.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.example.announcement.dto.ImportResult;
+
+/**
+ * AnnouncementImportService 定義公告批次匯入的業務邏輯接口。
+ */
+public interface AnnouncementImportService {
+
+	/**
+	 * 匯入資料的格式
+	 */
+	enum Format {
+		CSV,   // 第一列為欄位名稱：title,publishDate,endDate,content,createdBy
+		NDJSON // 每行一個 JSON 物件，欄位名稱同 CSV
+	}
+
+	/**
+	 * 以串流方式讀取並匯入公告
+	 * 資料分段處理，每段的內容平行清理後以 JDBC 批次寫入，並在獨立交易中提交；
+	 * 單筆資料格式錯誤或超過長度上限只會記錄在結果中，不影響其他資料；
+	 * 無法繼續讀取時（例如連線中斷）已讀取的資料照常匯入，結果記錄停止的位置與原因
+	 *
+	 * @param input  匯入資料（UTF-8）
+	 * @param format 資料格式
+	 * @return 匯入結果
+	 * @throws IOException 如果關閉資料串流失敗
+	 */
+	ImportResult importAnnouncements(InputStream input, Format format) throws IOException;
+}
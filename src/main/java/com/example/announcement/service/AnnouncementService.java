@@ -1,10 +1,16 @@
 package com.example.announcement.service;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.announcement.dto.AnnouncementSummary;
+import com.example.announcement.dto.CursorPage;
+import com.example.announcement.dto.SearchResult;
+import com.example.announcement.exception.NotFoundException;
 import com.example.announcement.model.Announcement;
 
 /**
@@ -13,13 +19,42 @@ import com.example.announcement.model.Announcement;
 public interface AnnouncementService {
 	
 	/**
-	 * 獲取分頁的公告列表
+	 * 獲取分頁的公告摘要列表（列表頁使用，不包含公告內容）
 	 * 
 	 * @param pageNumber 當前頁碼（從 0 開始）
 	 * @param pageSize   每頁顯示的記錄數
-	 * @return 分頁的公告列表
+	 * @return 分頁的公告摘要列表
 	 */
-	List<Announcement> getPagedAnnouncements(int pageNumber, int pageSize);
+	List<AnnouncementSummary> getPagedAnnouncements(int pageNumber, int pageSize);
+
+	/**
+	 * 以游標獲取公告摘要列表（keyset 分頁）
+	 * after 與 before 都為 null 時返回第一頁
+	 *
+	 * @param after    從此游標之後（較舊）開始取，可為 null
+	 * @param before   從此游標之前（較新）開始取，可為 null
+	 * @param pageSize 每頁顯示的記錄數
+	 * @return 當前頁資料與上一頁、下一頁的游標
+	 * @throws IllegalArgumentException 如果游標格式不正確
+	 */
+	CursorPage<AnnouncementSummary> getAnnouncementsByCursor(String after, String before, int pageSize);
+
+	/**
+	 * 獲取今天有效的公告摘要（已發布且尚未截止），按發布日期降序排列（使用記憶體中的快取）
+	 *
+	 * @return 有效公告摘要列表
+	 */
+	List<AnnouncementSummary> getActiveAnnouncements();
+
+	/**
+	 * 以關鍵字搜尋公告標題與內容，依相關度排序（使用記憶體中的索引，不查詢資料庫）
+	 *
+	 * @param query      查詢文字
+	 * @param pageNumber 當前頁碼（從 0 開始）
+	 * @param pageSize   每頁顯示的記錄數
+	 * @return 當前頁的公告摘要與符合條件的總數
+	 */
+	SearchResult searchAnnouncements(String query, int pageNumber, int pageSize);
 
 	/**
 	 * 獲取總公告數量
@@ -29,25 +64,67 @@ public interface AnnouncementService {
 	Long getTotalAnnouncementsCount();
 
 	/**
-	 * 根據 ID 獲取公告
+	 * 根據 ID 獲取完整公告（詳細頁與編輯頁使用，包含公告內容）
 	 *
 	 * @param id 公告 ID
 	 * @return 公告對象
 	 */
 	Announcement getAnnouncementById(int id);
 
+	/**
+	 * 根據 ID 批次獲取完整公告（包含公告內容）
+	 *
+	 * @param ids 公告 ID
+	 * @return 公告對象（不存在的 ID 會被略過，順序不保證）
+	 */
+	List<Announcement> getAnnouncementsByIds(Collection<Integer> ids);
+
 	/**
 	 * 刪除公告
 	 *
 	 * @param id 公告 ID
+	 * @throws NotFoundException 如果公告不存在
 	 */
 	void deleteAnnouncement(int id);
+
+	/**
+	 * 批次刪除公告，不存在的 ID 會被略過
+	 *
+	 * @param ids 公告 ID
+	 * @return 實際刪除的筆數
+	 */
+	int deleteAnnouncements(Collection<Integer> ids);
 	
 	/**
-	 * 儲存公告
+	 * 儲存公告（有 ID 時視為修改，與 updateAnnouncement 相同）
 	 *
 	 * @param announcement 公告對象
 	 */
 	void saveAnnouncementWithAttachments(Announcement announcement, MultipartFile uploadFile1) throws IOException;
+
+	/**
+	 * 修改公告，只更新有變更的欄位；沒有上傳新附件時保留原附件
+	 *
+	 * @param changes     修改後的公告（需包含 ID 與開啟編輯頁時的版本號）
+	 * @param uploadFile1 新上傳的附件，可為 null
+	 * @throws IOException 如果保存附件失敗
+	 * @throws NotFoundException 如果公告不存在
+	 * @throws org.springframework.orm.ObjectOptimisticLockingFailureException 如果公告已被其他人修改
+	 */
+	void updateAnnouncement(Announcement changes, MultipartFile uploadFile1) throws IOException;
+
+	/**
+	 * 以已在磁碟上的文件（分段上傳完成的文件）替換公告的附件，並釋放原附件的引用
+	 *
+	 * @param id       公告 ID
+	 * @param file     要附加的文件，保存後不可再使用
+	 * @param fileName 原始文件名稱
+	 * @param sha256   已驗證的文件內容 SHA-256
+	 * @param size     文件大小
+	 * @return 附件鍵
+	 * @throws IOException 如果保存附件失敗
+	 * @throws NotFoundException 如果公告不存在
+	 */
+	String attachFile(int id, Path file, String fileName, String sha256, long size) throws IOException;
 	
 }
\ No newline at end of file
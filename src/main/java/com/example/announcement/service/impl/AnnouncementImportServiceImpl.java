@@ -0,0 +1,277 @@
+package com.example.announcement.service.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.announcement.content.ContentProcessor;
+import com.example.announcement.dao.AnnouncementDAO;
+import com.example.announcement.dto.AnnouncementDTO;
+import com.example.announcement.dto.ImportResult;
+import com.example.announcement.event.AnnouncementChangedEvent;
+import com.example.announcement.model.Announcement;
+import com.example.announcement.service.AnnouncementImportService;
+
+/**
+ * AnnouncementImportServiceImpl 負責公告的批次匯入。
+ * 資料以串流方式逐段讀取，每段的內容清理在專用執行緒池中平行進行，
+ * 之後在獨立交易中以 JDBC 批次寫入，記憶體用量只與每段的筆數有關。
+ */
+@Service
+public class AnnouncementImportServiceImpl implements AnnouncementImportService, DisposableBean {
+
+	@Autowired
+	private AnnouncementDAO announcementDAO;
+
+	@Autowired
+	private ContentProcessor contentProcessor; // 公告內容處理（HTML 清理與內嵌圖片抽出）
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher; // 發布公告異動事件
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final ExecutorService executor; // 平行處理公告內容的執行緒池
+
+	private final ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
+
+	private final Validator validator = validatorFactory.getValidator();
+
+	private final int chunkSize; // 每段讀取的筆數，每段在一個交易中提交
+
+	private final int batchSize; // JDBC 批次大小
+
+	private final int maxRecordLength; // 每筆資料的字元數上限
+
+	@Autowired
+	public AnnouncementImportServiceImpl(PlatformTransactionManager transactionManager,
+			@Value("${import.chunk-size:1000}") int chunkSize,
+			@Value("${import.parallelism:0}") int parallelism,
+			@Value("${db.batch.size:50}") int batchSize,
+			@Value("${import.max-record-length:4194304}") int maxRecordLength) {
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.chunkSize = chunkSize;
+		this.batchSize = batchSize;
+		this.maxRecordLength = maxRecordLength;
+
+		// 0 表示使用 CPU 核心數
+		int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+		AtomicInteger sequence = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "announcement-import-" + sequence.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@Override
+	public ImportResult importAnnouncements(InputStream input, Format format) throws IOException {
+		long start = System.nanoTime();
+		ImportResult result = new ImportResult();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+		try (ImportRecordReader records = format == Format.CSV ? new CsvRecordReader(reader, maxRecordLength)
+				: new NdjsonRecordReader(reader, maxRecordLength)) {
+			List<PendingRecord> chunk = new ArrayList<>(chunkSize);
+			long recordNumber = 0;
+			while (true) {
+				Map<String, String> record;
+				recordNumber++;
+				try {
+					record = records.next();
+				} catch (IllegalArgumentException e) {
+					result.addError(recordNumber, e.getMessage());
+					continue;
+				} catch (IOException e) {
+					// 無法繼續讀取：之前的資料照常匯入，結果記錄停止的位置，重試時可從下一筆開始
+					result.setFatalError(e.getMessage());
+					break;
+				}
+				if (record == null) {
+					break;
+				}
+				result.setLastRecord(recordNumber);
+
+				try {
+					chunk.add(new PendingRecord(recordNumber, toDTO(record)));
+				} catch (IllegalArgumentException e) {
+					result.addError(recordNumber, e.getMessage());
+				}
+
+				if (chunk.size() >= chunkSize) {
+					importChunk(chunk, result);
+					chunk.clear();
+				}
+			}
+			importChunk(chunk, result);
+		}
+
+		result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+		System.out.println("公告匯入完成：成功 " + result.getImported() + " 筆，失敗 " + result.getFailed()
+				+ " 筆，耗時 " + result.getElapsedMillis() + " ms"
+				+ (result.getFatalError() != null ? "，第 " + result.getLastRecord() + " 筆之後中斷：" + result.getFatalError() : ""));
+		return result;
+	}
+
+	/**
+	 * 匯入一段資料：平行處理內容後，在同一個交易中批次寫入
+	 *
+	 * @param chunk  這一段的資料
+	 * @param result 匯入結果
+	 */
+	private void importChunk(List<PendingRecord> chunk, ImportResult result) {
+		if (chunk.isEmpty()) {
+			return;
+		}
+
+		// 平行清理內容並抽出內嵌圖片
+		List<CompletableFuture<Announcement>> futures = new ArrayList<>(chunk.size());
+		for (PendingRecord record : chunk) {
+			futures.add(CompletableFuture.supplyAsync(() -> toEntity(record.dto), executor));
+		}
+
+		List<Announcement> announcements = new ArrayList<>(chunk.size());
+		List<PendingRecord> accepted = new ArrayList<>(chunk.size());
+		for (int i = 0; i < chunk.size(); i++) {
+			try {
+				announcements.add(futures.get(i).join());
+				accepted.add(chunk.get(i));
+			} catch (CompletionException e) {
+				Throwable cause = e.getCause() != null ? e.getCause() : e;
+				result.addError(chunk.get(i).number, "內容處理失敗：" + cause.getMessage());
+			}
+		}
+		if (announcements.isEmpty()) {
+			return;
+		}
+
+		try {
+			transactionTemplate.executeWithoutResult(status -> {
+				List<Integer> ids = announcementDAO.saveAll(announcements, batchSize);
+				// 發布異動事件，由監聽者在交易提交後更新快取
+				eventPublisher.publishEvent(
+						new AnnouncementChangedEvent(AnnouncementChangedEvent.Type.CREATED, ids));
+			});
+			result.setImported(result.getImported() + announcements.size());
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+			for (PendingRecord record : accepted) {
+				result.addError(record.number, "寫入資料庫失敗：" + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * 將一筆匯入資料轉換為 DTO 並校驗
+	 *
+	 * @param record 欄位名稱 -> 欄位值
+	 * @return 公告 DTO
+	 * @throws IllegalArgumentException 如果資料格式錯誤或校驗失敗
+	 */
+	private AnnouncementDTO toDTO(Map<String, String> record) {
+		AnnouncementDTO dto = new AnnouncementDTO();
+		dto.setTitle(emptyToNull(record.get("title")));
+		dto.setPublishDate(parseDate(record.get("publishDate"), "publishDate"));
+		dto.setEndDate(parseDate(record.get("endDate"), "endDate"));
+		dto.setContent(record.get("content"));
+		dto.setCreatedBy(emptyToNull(record.get("createdBy")));
+
+		Set<ConstraintViolation<AnnouncementDTO>> violations = validator.validate(dto);
+		if (!violations.isEmpty()) {
+			StringBuilder message = new StringBuilder();
+			for (ConstraintViolation<AnnouncementDTO> violation : violations) {
+				if (message.length() > 0) {
+					message.append("；");
+				}
+				message.append(violation.getMessage());
+			}
+			throw new IllegalArgumentException(message.toString());
+		}
+		return dto;
+	}
+
+	/**
+	 * CSV 的空白欄位視為未填寫，交由校驗回報「不能為空」
+	 */
+	private static String emptyToNull(String value) {
+		return value == null || value.trim().isEmpty() ? null : value;
+	}
+
+	private static LocalDate parseDate(String value, String field) {
+		if (value == null || value.trim().isEmpty()) {
+			return null; // 交由校驗回報「不能為空」
+		}
+		try {
+			return LocalDate.parse(value.trim());
+		} catch (DateTimeParseException e) {
+			throw new IllegalArgumentException(field + " 日期格式錯誤（應為 yyyy-MM-dd）：" + value);
+		}
+	}
+
+	/**
+	 * 處理內容並轉換為實體類，在執行緒池中執行
+	 *
+	 * @param dto 公告 DTO
+	 * @return 新公告（ID 為 null）
+	 */
+	private Announcement toEntity(AnnouncementDTO dto) {
+		Announcement announcement = new Announcement();
+		announcement.setTitle(dto.getTitle());
+		announcement.setPublishDate(dto.getPublishDate());
+		announcement.setEndDate(dto.getEndDate());
+		announcement.setCreatedBy(dto.getCreatedBy());
+		try {
+			announcement.setContent(contentProcessor.process(dto.getContent()));
+		} catch (IOException e) {
+			throw new CompletionException(e);
+		}
+		return announcement;
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdown();
+		validatorFactory.close();
+	}
+
+	/**
+	 * 已讀取、等待寫入的一筆資料
+	 */
+	private static class PendingRecord {
+
+		private final long number; // 資料的序號（從 1 開始）
+
+		private final AnnouncementDTO dto;
+
+		PendingRecord(long number, AnnouncementDTO dto) {
+			this.number = number;
+			this.dto = dto;
+		}
+	}
+}
@@ -1,21 +1,36 @@
 package com.example.announcement.service.impl;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 
-import org.jsoup.Jsoup;
-import org.jsoup.safety.Safelist;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.announcement.cache.ActiveAnnouncementCache;
+import com.example.announcement.cache.AnnouncementCountCache;
+import com.example.announcement.content.ContentProcessor;
 import com.example.announcement.dao.AnnouncementDAO;
+import com.example.announcement.dto.AnnouncementCursor;
+import com.example.announcement.dto.AnnouncementSummary;
+import com.example.announcement.dto.CursorPage;
+import com.example.announcement.dto.SearchResult;
+import com.example.announcement.event.AnnouncementChangedEvent;
+import com.example.announcement.exception.NotFoundException;
 import com.example.announcement.model.Announcement;
+import com.example.announcement.search.AnnouncementSearchIndex;
 import com.example.announcement.service.AnnouncementService;
+import com.example.announcement.storage.AttachmentStore;
 
 /**
  * AnnouncementServiceImpl 負責實現公告相關的業務邏輯。
@@ -23,42 +38,152 @@ import com.example.announcement.service.AnnouncementService;
 @Service
 public class AnnouncementServiceImpl implements AnnouncementService {
 
+	private static final int DELETE_CHUNK_SIZE = 500; // 批次刪除時每個 IN 條件的 ID 數
+
 	@Autowired
 	private AnnouncementDAO announcementDAO;
 
 	@Autowired
-	private String uploadDirectory; // 上傳文件的目錄路徑
+	private AnnouncementCountCache announcementCountCache; // 公告總數量快取
+
+	@Autowired
+	private ActiveAnnouncementCache activeAnnouncementCache; // 有效公告快取
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher; // 發布公告異動事件
+
+	@Autowired
+	private AttachmentStore attachmentStore; // 附件的保存位置
+
+	@Autowired
+	private AnnouncementSearchIndex searchIndex; // 公告全文檢索索引
+
+	@Autowired
+	private ContentProcessor contentProcessor; // 公告內容處理（HTML 清理與內嵌圖片抽出）
 	
 	/**
-	 * 獲取公告列表（分頁）
+	 * 獲取公告摘要列表（分頁）
+	 * 使用唯讀交易，Hibernate 不會為查詢結果保留髒檢查快照，也不會在提交前 flush
 	 *
 	 * @param pageNumber 當前頁碼（從 0 開始）
 	 * @param pageSize   每頁顯示的記錄數
-	 * @return 分頁的公告列表
+	 * @return 分頁的公告摘要列表
 	 */
-	@Transactional
-	public List<Announcement> getPagedAnnouncements(int pageNumber, int pageSize) {
+	@Transactional(readOnly = true)
+	public List<AnnouncementSummary> getPagedAnnouncements(int pageNumber, int pageSize) {
 		return announcementDAO.getPagedAnnouncements(pageNumber, pageSize);
 	}
 
+	/**
+	 * 以游標獲取公告摘要列表（keyset 分頁）
+	 * 多查詢一筆記錄用來判斷是否還有下一頁（或上一頁）
+	 *
+	 * @param after    從此游標之後（較舊）開始取，可為 null
+	 * @param before   從此游標之前（較新）開始取，可為 null
+	 * @param pageSize 每頁顯示的記錄數
+	 * @return 當前頁資料與上一頁、下一頁的游標
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public CursorPage<AnnouncementSummary> getAnnouncementsByCursor(String after, String before, int pageSize) {
+		List<AnnouncementSummary> items;
+		boolean hasNext;
+		boolean hasPrev;
+
+		if (before != null) {
+			// 往前翻頁：查詢較新的記錄後反轉為降序
+			AnnouncementCursor cursor = AnnouncementCursor.decode(before);
+			items = announcementDAO.getAnnouncementsBefore(cursor.getPublishDate(), cursor.getId(), pageSize + 1);
+			hasPrev = items.size() > pageSize;
+			if (hasPrev) {
+				items = items.subList(0, pageSize);
+			}
+			Collections.reverse(items);
+			hasNext = true; // 游標本身所在的記錄就在下一頁
+		} else if (after != null) {
+			// 往後翻頁：查詢較舊的記錄
+			AnnouncementCursor cursor = AnnouncementCursor.decode(after);
+			items = announcementDAO.getAnnouncementsAfter(cursor.getPublishDate(), cursor.getId(), pageSize + 1);
+			hasNext = items.size() > pageSize;
+			if (hasNext) {
+				items = items.subList(0, pageSize);
+			}
+			hasPrev = true; // 游標本身所在的記錄就在上一頁
+		} else {
+			// 第一頁
+			items = announcementDAO.getPagedAnnouncements(0, pageSize + 1);
+			hasNext = items.size() > pageSize;
+			if (hasNext) {
+				items = items.subList(0, pageSize);
+			}
+			hasPrev = false;
+		}
+
+		String nextCursor = hasNext && !items.isEmpty() ? toCursor(items.get(items.size() - 1)) : null;
+		String prevCursor = hasPrev && !items.isEmpty() ? toCursor(items.get(0)) : null;
+		return new CursorPage<>(items, nextCursor, prevCursor);
+	}
+
+	/**
+	 * 以公告的排序鍵建立游標
+	 *
+	 * @param announcement 公告摘要
+	 * @return 游標文字
+	 */
+	private String toCursor(AnnouncementSummary announcement) {
+		return new AnnouncementCursor(announcement.getPublishDate(), announcement.getId()).encode();
+	}
+
+	/**
+	 * 獲取今天有效的公告摘要
+	 * 直接讀取記憶體中的快取，不開啟交易也不查詢資料庫
+	 *
+	 * @return 有效公告摘要列表
+	 */
+	@Override
+	public List<AnnouncementSummary> getActiveAnnouncements() {
+		return activeAnnouncementCache.getActive(LocalDate.now());
+	}
+
+	/**
+	 * 以關鍵字搜尋公告
+	 * 直接查詢記憶體中的索引，不開啟交易也不查詢資料庫
+	 *
+	 * @param query      查詢文字
+	 * @param pageNumber 當前頁碼（從 0 開始）
+	 * @param pageSize   每頁顯示的記錄數
+	 * @return 當前頁的公告摘要與符合條件的總數
+	 */
+	@Override
+	public SearchResult searchAnnouncements(String query, int pageNumber, int pageSize) {
+		return searchIndex.search(query, pageNumber, pageSize);
+	}
+
 	/**
 	 * 獲取公告總數量
+	 * 直接讀取記憶體中的快取，不開啟交易也不執行 COUNT 查詢
 	 *
 	 * @return 公告總數量
 	 */
-	@Transactional
 	public Long getTotalAnnouncementsCount() {
-		return announcementDAO.getTotalAnnouncementsCount();
+		return announcementCountCache.get();
 	}
 
 	@Override
-	@Transactional
+	@Transactional(readOnly = true)
 	public Announcement getAnnouncementById(int id) {
 		return announcementDAO.getById(id);
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public List<Announcement> getAnnouncementsByIds(Collection<Integer> ids) {
+		return announcementDAO.getByIds(ids);
+	}
+
 	/**
 	 * 保存公告與附件的主業務邏輯
+	 * 有 ID 的公告交由 updateAnnouncement 修改，避免以分離的實體覆寫所有欄位
 	 * 
 	 * @param announcement 公告對象
 	 * @param uploadFile1  上傳的附件（單一檔案）
@@ -68,6 +193,10 @@ public class AnnouncementServiceImpl implements AnnouncementService {
 	@Transactional
 	public void saveAnnouncementWithAttachments(Announcement announcement, MultipartFile uploadFile1)
 			throws IOException {
+		if (announcement.getId() != null) {
+			updateAnnouncement(announcement, uploadFile1);
+			return;
+		}
 		try {
 			// 處理公告內容中的 Base64 圖片
 			String processedContent = processContent(announcement.getContent());
@@ -84,6 +213,10 @@ public class AnnouncementServiceImpl implements AnnouncementService {
 			announcementDAO.saveOrUpdate(announcement);
 			System.out.println("公告已保存：" + announcement);
 
+			// 發布異動事件，由監聽者在交易提交後更新快取
+			eventPublisher.publishEvent(AnnouncementChangedEvent.of(AnnouncementChangedEvent.Type.CREATED,
+					announcement.getId()));
+
 			// 如果需要，可以記錄附件保存的路徑
 			if (savedFilePath != null) {
 				System.out.println("已保存的附件：" + savedFilePath);
@@ -94,90 +227,162 @@ public class AnnouncementServiceImpl implements AnnouncementService {
 		}
 	}
 
+	/**
+	 * 修改公告
+	 * 在交易中讀取目前的公告，只修改有變更的欄位，由 Hibernate 髒檢查產生只包含這些欄位的 UPDATE（@DynamicUpdate），
+	 * 公告內容沒有變更時不會重新寫入。
+	 * 版本號與開啟編輯頁時不同表示已被其他人修改，直接失敗；讀取後才被修改的情況由 UPDATE 的版本條件偵測。
+	 *
+	 * @param changes     修改後的公告（需包含 ID 與版本號）
+	 * @param uploadFile1 新上傳的附件，可為 null
+	 * @throws IOException 如果保存附件失敗
+	 */
+	@Override
+	@Transactional
+	public void updateAnnouncement(Announcement changes, MultipartFile uploadFile1) throws IOException {
+		Announcement current = announcementDAO.getById(changes.getId());
+		if (current == null) {
+			throw new NotFoundException("公告不存在，無法修改");
+		}
+		if (!Objects.equals(current.getVersion(), changes.getVersion())) {
+			throw new ObjectOptimisticLockingFailureException(Announcement.class, changes.getId());
+		}
+
+		if (!Objects.equals(current.getTitle(), changes.getTitle())) {
+			current.setTitle(changes.getTitle());
+		}
+		if (!Objects.equals(current.getPublishDate(), changes.getPublishDate())) {
+			current.setPublishDate(changes.getPublishDate());
+		}
+		if (!Objects.equals(current.getEndDate(), changes.getEndDate())) {
+			current.setEndDate(changes.getEndDate());
+		}
+		if (!Objects.equals(current.getCreatedBy(), changes.getCreatedBy())) {
+			current.setCreatedBy(changes.getCreatedBy());
+		}
+
+		// 內容以清理後的結果比較，未修改的內容清理結果相同（並命中清理快取）
+		String processedContent = contentProcessor.process(changes.getContent());
+		if (!Objects.equals(current.getContent(), processedContent)) {
+			current.setContent(processedContent);
+		}
+
+		// 只有上傳新附件時才替換，並釋放原附件的引用
+		if (uploadFile1 != null && !uploadFile1.isEmpty()) {
+			String previousKey = current.getUploadFile1();
+			String savedKey = saveUploadFile(uploadFile1);
+			current.setUploadFile1(savedKey);
+			if (previousKey != null) {
+				attachmentStore.release(previousKey); // 內容相同時 store 已增加引用，釋放後引用數不變
+			}
+			System.out.println("已保存的附件：" + savedKey);
+		}
+
+		eventPublisher.publishEvent(AnnouncementChangedEvent.of(AnnouncementChangedEvent.Type.UPDATED, current.getId()));
+	}
+
+	/**
+	 * 以分段上傳完成的文件替換公告附件，只修改附件欄位
+	 *
+	 * @param id       公告 ID
+	 * @param file     要附加的文件
+	 * @param fileName 原始文件名稱
+	 * @param sha256   已驗證的文件內容 SHA-256
+	 * @param size     文件大小
+	 * @return 附件鍵
+	 * @throws IOException 如果保存附件失敗
+	 */
+	@Override
+	@Transactional
+	public String attachFile(int id, Path file, String fileName, String sha256, long size) throws IOException {
+		Announcement current = announcementDAO.getById(id);
+		if (current == null) {
+			throw new NotFoundException("公告不存在，無法附加附件");
+		}
+
+		String previousKey = current.getUploadFile1();
+		String savedKey = attachmentStore.store(file, fileName, sha256, size); // 分段上傳已驗證 SHA-256，不再重新計算
+		current.setUploadFile1(savedKey);
+		if (previousKey != null) {
+			attachmentStore.release(previousKey); // 內容相同時 store 已增加引用，釋放後引用數不變
+		}
+		System.out.println("已保存的附件：" + savedKey);
+
+		eventPublisher.publishEvent(AnnouncementChangedEvent.of(AnnouncementChangedEvent.Type.UPDATED, id));
+		return savedKey;
+	}
+
 	/**
 	 * 處理公告內容中的 Base64 圖片，並清理不安全的 HTML
+	 * 套件內可見，供 src/jmh 下的效能測試直接呼叫
 	 * 
 	 * @param content 公告內容
 	 * @return 清理後的安全內容
 	 * @throws Exception 如果處理失敗
 	 */
-	private String processContent(String content) throws Exception {
-		if (content == null || content.isEmpty()) {
-			return content; // 如果內容為空，直接返回
-		}
-
-		// 使用 Jsoup 清理 HTML，避免 XSS 攻擊
-		// 定義允許的標籤與屬性
-		Safelist safelist = Safelist.relaxed().addTags("p", "a", "strong", "em", "ul", "ol", "li", "span", "div", "img") // 允許的標籤
-				.addAttributes("a", "href") // 允許 a 標籤的 href 屬性
-				.addAttributes("img", "src", "alt", "title") // 允許 img 標籤的 src、alt、title 屬性
-				.addProtocols("img", "src", "http", "https", "data"); // 限制 img 的 src 屬性為 http、https 或 data
-
-		// 清理 HTML，移除不安全的標籤與屬性
-		return Jsoup.clean(content, safelist);
+	String processContent(String content) throws Exception {
+		return contentProcessor.process(content);
 	}
 	
 	/**
-     * 保存上傳的文件到指定的目錄，並返回保存的文件名稱
+     * 保存上傳的文件，並返回附件鍵
+     * 相同內容的文件只保存一份，由 AttachmentStore 以引用計數管理
      *
      * @param uploadFile1 上傳的文件
-     * @return 保存的文件名稱（包含時間戳）
+     * @return 附件鍵（內容雜湊 + 原始文件名稱）
      * @throws IOException 如果文件保存過程中發生錯誤
      */
     public String saveUploadFile(MultipartFile uploadFile1) throws IOException {
-        // 獲取當前操作系統的文件保存目錄
-        String uploadDir = uploadDirectory; // 使用注入的 uploadDirectory 變量獲取目錄路徑;
-
-        // 確保目標目錄存在，如果不存在，則自動創建
-        Files.createDirectories(Paths.get(uploadDir)); // 如果目錄已存在，則不會執行任何操作
-
         // 提取原始文件名稱，並檢查其是否有效
         String originalFileName = uploadFile1.getOriginalFilename();
         if (originalFileName == null || originalFileName.isEmpty()) {
             throw new IllegalArgumentException("上傳的文件名稱為空，無法保存");
         }
 
-        // 為文件生成唯一名稱（時間戳 + 原始文件名稱）
-        String fileName = System.currentTimeMillis() + "_" + originalFileName;
-
-        // 定義文件的完整保存路徑
-        Path destination = Paths.get(uploadDir, fileName);
-
-        // 將上傳的文件保存到目標路徑
-        uploadFile1.transferTo(destination.toFile());
-
-        // 返回保存的文件名稱（僅文件名，而非完整路徑）
-        return fileName;
+        // 串流計算雜湊並保存文件
+        return attachmentStore.store(uploadFile1);
     }
 
     @Override
     @Transactional
     public void deleteAnnouncement(int id) {
-    	// 查詢公告，確保存在
-    	Announcement announcement = announcementDAO.getById(id);
-    	if (announcement == null) {
-    	    throw new IllegalArgumentException("公告不存在，無法刪除");
+    	if (deleteAnnouncements(Collections.singletonList(id)) == 0) {
+    	    throw new NotFoundException("公告不存在，無法刪除");
     	}
+    }
+
+    /**
+     * 批次刪除公告
+     * 每段只查詢附件鍵並以一次 DELETE ... IN 刪除，不讀取公告內容；附件文件在交易提交後才刪除
+     *
+     * @param ids 公告 ID
+     * @return 實際刪除的筆數
+     */
+    @Override
+    @Transactional
+    public int deleteAnnouncements(Collection<Integer> ids) {
+        List<Integer> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<Integer> deleted = new ArrayList<>(distinct.size());
+        for (int from = 0; from < distinct.size(); from += DELETE_CHUNK_SIZE) {
+            List<Integer> chunk = distinct.subList(from, Math.min(from + DELETE_CHUNK_SIZE, distinct.size()));
 
-        // 獲取公告中保存的文件名稱
-        String fileName = announcement.getUploadFile1(); // 假設文件名稱保存在 fileName 屬性中
-        if (fileName != null && !fileName.isEmpty()) {
-            try {
-                // 使用 getUploadDirectory 方法獲取文件保存的目錄
-                String uploadDir = uploadDirectory; // 使用注入的 uploadDirectory 變量獲取目錄路徑;
-                Path fileToDelete = Paths.get(uploadDir, fileName);
-
-                // 嘗試刪除文件
-                Files.deleteIfExists(fileToDelete);
-            } catch (IOException e) {
-                // 如果文件刪除失敗，記錄錯誤日誌
-                System.err.println("刪除文件失敗: " + fileName);
-                e.printStackTrace();
+            // 釋放附件引用，最後一個引用釋放時於交易提交後刪除文件
+            List<Integer> existing = new ArrayList<>(chunk.size());
+            for (Object[] row : announcementDAO.getAttachmentKeys(chunk)) {
+                existing.add((Integer) row[0]);
+                attachmentStore.release((String) row[1]);
+            }
+
+            if (!existing.isEmpty()) {
+                announcementDAO.deleteByIds(existing);
+                deleted.addAll(existing);
             }
         }
 
-        // 刪除公告資料
-        announcementDAO.delete(id);
+        if (!deleted.isEmpty()) {
+            eventPublisher.publishEvent(new AnnouncementChangedEvent(AnnouncementChangedEvent.Type.DELETED, deleted));
+        }
+        return deleted.size();
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,143 @@
+package com.example.announcement.service.impl;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 依 RFC 4180 逐筆讀取 CSV，第一列為欄位名稱。
+ * 以雙引號包住的欄位可以包含逗號、換行與重複的雙引號（""），公告內容的 HTML 因此可以直接放在欄位中。
+ * 每筆資料的長度有上限：引號沒有結束時不會把之後的整個文件讀進同一個欄位，
+ * 超過上限的資料略過到下一行並回報為這一筆的錯誤，之後的資料繼續讀取。
+ */
+class CsvRecordReader implements ImportRecordReader {
+
+    private final Reader reader;
+
+    private final int maxRecordLength; // 每筆資料的字元數上限
+
+    private List<String> header;
+
+    private int pending = -2; // 預讀的字元，-2 表示沒有預讀
+
+    CsvRecordReader(Reader reader, int maxRecordLength) {
+        this.reader = reader;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+        if (header == null) {
+            try {
+                header = readRow();
+            } catch (IllegalArgumentException e) {
+                throw new IOException("CSV 欄位名稱列格式錯誤：" + e.getMessage()); // 沒有欄位名稱無法繼續讀取
+            }
+            if (header == null) {
+                return null; // 空文件
+            }
+            if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+                header.set(0, header.get(0).substring(1)); // 去掉 UTF-8 BOM
+            }
+        }
+
+        List<String> row;
+        do {
+            row = readRow();
+        } while (row != null && row.size() == 1 && row.get(0).isEmpty()); // 略過空白行
+        if (row == null) {
+            return null;
+        }
+
+        Map<String, String> record = new HashMap<>();
+        for (int i = 0; i < header.size() && i < row.size(); i++) {
+            record.put(header.get(i).trim(), row.get(i));
+        }
+        return record;
+    }
+
+    /**
+     * 讀取一列，支援以雙引號包住的欄位跨越多行
+     *
+     * @return 欄位值列表，已到文件結尾時返回 null
+     * @throws IOException 如果讀取失敗
+     * @throws IllegalArgumentException 如果引號在文件結尾前沒有結束，或這一列超過長度上限
+     */
+    private List<String> readRow() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> row = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = 0;
+        while (true) {
+            if (++length > maxRecordLength) {
+                skipLine(c);
+                throw new IllegalArgumentException("CSV 格式錯誤：超過 " + maxRecordLength + " 個字元（引號可能沒有結束），已略過到下一行");
+            }
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("CSV 格式錯誤：引號沒有結束");
+                }
+                if (c == '"') {
+                    int nextChar = read();
+                    if (nextChar == '"') {
+                        field.append('"'); // 重複的雙引號代表一個雙引號
+                    } else {
+                        quoted = false;
+                        c = nextChar;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                row.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int nextChar = read();
+                    if (nextChar != '\n') {
+                        pending = nextChar;
+                    }
+                }
+                row.add(field.toString());
+                return row;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * 略過到下一個換行之後（不理會引號），從下一行繼續讀取
+     */
+    private void skipLine(int c) throws IOException {
+        while (c != '\n' && c != -1) {
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
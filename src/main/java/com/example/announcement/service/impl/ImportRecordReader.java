@@ -0,0 +1,20 @@
+package com.example.announcement.service.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 逐筆讀取匯入資料，每筆資料以欄位名稱對應欄位值
+ */
+interface ImportRecordReader extends Closeable {
+
+    /**
+     * 讀取下一筆資料
+     *
+     * @return 欄位名稱 -> 欄位值，沒有更多資料時返回 null
+     * @throws IOException 如果讀取失敗，或資料格式錯誤導致無法繼續讀取
+     * @throws IllegalArgumentException 如果這一筆資料無法解析，但可以繼續讀取下一筆
+     */
+    Map<String, String> next() throws IOException;
+}
@@ -0,0 +1,94 @@
+package com.example.announcement.service.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 逐行讀取 NDJSON（每行一個 JSON 物件），只保留物件第一層的欄位
+ * 每行的長度有上限，超過上限的行略過並回報為這一筆的錯誤
+ */
+class NdjsonRecordReader implements ImportRecordReader {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper(); // 設定完成後可由多個執行緒共用
+
+    private final BufferedReader reader;
+
+    private final int maxRecordLength; // 每行的字元數上限
+
+    NdjsonRecordReader(BufferedReader reader, int maxRecordLength) {
+        this.reader = reader;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+        String line;
+        do {
+            line = readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.trim().isEmpty()); // 略過空白行
+
+        JsonNode node;
+        try {
+            node = OBJECT_MAPPER.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON 格式錯誤：" + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("每行必須是一個 JSON 物件");
+        }
+
+        Map<String, String> record = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (!field.getValue().isNull()) {
+                record.put(field.getKey(), field.getValue().asText());
+            }
+        }
+        return record;
+    }
+
+    /**
+     * 讀取一行，超過長度上限時略過這一行的其餘內容
+     *
+     * @return 一行的內容（不含換行），已到文件結尾時返回 null
+     * @throws IllegalArgumentException 如果這一行超過長度上限
+     */
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        while (c != '\n' && c != -1) {
+            if (line.length() >= maxRecordLength) {
+                while (c != '\n' && c != -1) {
+                    c = reader.read();
+                }
+                throw new IllegalArgumentException("超過 " + maxRecordLength + " 個字元，已略過這一行");
+            }
+            line.append((char) c);
+            c = reader.read();
+        }
+        int end = line.length();
+        if (end > 0 && line.charAt(end - 1) == '\r') {
+            line.setLength(end - 1);
+        }
+        return line.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
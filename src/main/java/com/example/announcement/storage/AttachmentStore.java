@@ -0,0 +1,73 @@
+package com.example.announcement.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * AttachmentStore 定義公告附件的保存方式。
+ * 附件以「附件鍵」識別，附件鍵保存在 Announcement.uploadFile1，格式由實作決定，
+ * 但必須是「識別碼_原始文件名稱」的形式，讓畫面可以還原原始文件名稱。
+ * 相同內容的附件只保存一份，並以引用計數管理，最後一個引用釋放時才刪除。
+ */
+public interface AttachmentStore {
+
+	/**
+	 * 保存上傳的附件，並增加一個引用
+	 * 必須在交易中呼叫，交易回滾時新寫入的文件會留給孤兒附件清理處理
+	 *
+	 * @param file 上傳的文件
+	 * @return 附件鍵
+	 * @throws IOException 如果文件保存過程中發生錯誤
+	 */
+	String store(MultipartFile file) throws IOException;
+
+	/**
+	 * 保存已在磁碟上的文件（例如分段上傳完成的文件），並增加一個引用
+	 * 文件會被搬移或刪除，呼叫後不可再使用；必須在交易中呼叫
+	 *
+	 * @param file         要保存的文件
+	 * @param originalName 原始文件名稱
+	 * @return 附件鍵
+	 * @throws IOException 如果文件保存過程中發生錯誤
+	 */
+	String store(Path file, String originalName) throws IOException;
+
+	/**
+	 * 保存已在磁碟上且已驗證 SHA-256 的文件，不再重新讀取計算雜湊，並增加一個引用
+	 * 文件會被搬移或刪除，呼叫後不可再使用；必須在交易中呼叫
+	 *
+	 * @param file         要保存的文件
+	 * @param originalName 原始文件名稱
+	 * @param sha256       已驗證的文件內容 SHA-256（小寫十六進位）
+	 * @param size         文件大小
+	 * @return 附件鍵
+	 * @throws IOException 如果文件保存過程中發生錯誤
+	 */
+	String store(Path file, String originalName, String sha256, long size) throws IOException;
+
+	/**
+	 * 解析附件鍵對應的文件
+	 *
+	 * @param key 附件鍵
+	 * @return 文件路徑，附件不存在或附件鍵無效時返回 null
+	 */
+	Path resolve(String key);
+
+	/**
+	 * 獲取附件內容的識別標籤，內容相同時標籤相同，可作為強 ETag 使用
+	 *
+	 * @param key 附件鍵
+	 * @return 識別標籤（含雙引號），附件不存在時返回 null
+	 * @throws IOException 如果讀取文件資訊失敗
+	 */
+	String etag(String key) throws IOException;
+
+	/**
+	 * 釋放一個引用，最後一個引用釋放時在交易提交後刪除文件
+	 *
+	 * @param key 附件鍵
+	 */
+	void release(String key);
+}
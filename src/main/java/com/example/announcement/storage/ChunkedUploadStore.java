@@ -0,0 +1,399 @@
+package com.example.announcement.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.announcement.dto.UploadStatus;
+import com.example.announcement.exception.NotFoundException;
+
+/**
+ * ChunkedUploadStore 管理可續傳的分段上傳：建立上傳後，用戶端依位移逐段送出文件內容，全部送出後以 SHA-256 驗證。
+ * 每段直接從請求串流以固定大小的緩衝區寫入文件的指定位置（FileChannel 定位寫入），記憶體用量與文件大小無關。
+ * 上傳中的文件與描述檔（文件名稱、大小、SHA-256）保存在上傳目錄的 .tmp/，重新啟動後仍可續傳；
+ * 放棄的上傳超過保留期未再寫入時，由孤兒附件清理刪除。
+ */
+@Component
+public class ChunkedUploadStore implements InitializingBean {
+
+    private static final Pattern UPLOAD_ID = Pattern.compile("^[0-9a-f]{32}$");
+
+    private static final Pattern SHA256 = Pattern.compile("^[0-9a-f]{64}$");
+
+    private static final String PREFIX = "chunked-";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired
+    private String uploadDirectory; // 上傳文件的目錄路徑
+
+    @Value("${upload.chunked.max-size:1073741824}")
+    private long maxSize; // 單一文件的大小上限
+
+    @Value("${upload.chunked.chunk-size:8388608}")
+    private long chunkSize; // 建議用戶端每段送出的大小
+
+    private Path directory; // 上傳中的文件目錄（與附件的暫存目錄相同，完成後可原子搬移）
+
+    /**
+     * 上傳 ID -> 上傳狀態，重新啟動後第一次存取時從描述檔載入
+     */
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+
+    private final AtomicLong receivedBytes = new AtomicLong(); // 啟動以來接收的上傳內容大小
+
+    private final AtomicLong completedCount = new AtomicLong(); // 驗證通過的上傳數
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        directory = Paths.get(uploadDirectory).toAbsolutePath().normalize().resolve(".tmp");
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * 建立上傳
+     *
+     * @param fileName 原始文件名稱
+     * @param size     文件大小
+     * @param sha256   文件內容的 SHA-256（十六進位）
+     * @return 上傳狀態
+     * @throws IOException 如果建立文件失敗
+     * @throws IllegalArgumentException 如果參數無效或文件超過大小上限
+     */
+    public UploadStatus create(String fileName, long size, String sha256) throws IOException {
+        if (fileName == null || fileName.trim().isEmpty()) {
+            throw new IllegalArgumentException("上傳的文件名稱為空，無法保存");
+        }
+        if (size <= 0 || size > maxSize) {
+            throw new IllegalArgumentException("文件大小必須介於 1 與 " + maxSize + " bytes 之間");
+        }
+        String checksum = sha256 == null ? "" : sha256.toLowerCase(Locale.ROOT);
+        if (!SHA256.matcher(checksum).matches()) {
+            throw new IllegalArgumentException("SHA-256 格式錯誤");
+        }
+
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        Upload upload = new Upload(ContentHash.toHex(bytes), fileName.trim(), size, checksum);
+        Files.createFile(upload.file);
+        Properties descriptor = new Properties();
+        descriptor.setProperty("fileName", upload.fileName);
+        descriptor.setProperty("size", Long.toString(size));
+        descriptor.setProperty("sha256", checksum);
+        try (Writer out = Files.newBufferedWriter(upload.descriptor, StandardCharsets.UTF_8)) {
+            descriptor.store(out, null);
+        }
+        upload.digest = ContentHash.newDigest();
+        uploads.put(upload.id, upload);
+        return status(upload);
+    }
+
+    /**
+     * 查詢上傳狀態，用戶端中斷後依 offset 繼續送出
+     *
+     * @param id 上傳 ID
+     * @return 上傳狀態
+     * @throws IOException 如果讀取描述檔失敗
+     * @throws NotFoundException 如果上傳不存在
+     */
+    public UploadStatus status(String id) throws IOException {
+        return status(get(id));
+    }
+
+    /**
+     * 從指定位移寫入一段內容
+     * 位移必須不大於已接收的大小（可重送最後一段），寫入完成並同步到磁碟後才回報新的位移
+     *
+     * @param id     上傳 ID
+     * @param offset 這段內容在文件中的位移
+     * @param in     這段內容（請求本文）
+     * @return 寫入後的上傳狀態
+     * @throws IOException 如果讀取請求或寫入文件失敗
+     * @throws NotFoundException 如果上傳不存在
+     * @throws IllegalArgumentException 如果內容超過宣告的大小
+     * @throws IllegalStateException 如果位移大於已接收的大小或上傳已完成
+     */
+    public UploadStatus append(String id, long offset, InputStream in) throws IOException {
+        Upload upload = get(id);
+        synchronized (upload) {
+            if (upload.completed) {
+                throw new IllegalStateException("上傳已完成，不可再寫入");
+            }
+            if (offset < 0 || offset > upload.received) {
+                throw new IllegalStateException("位移不連續，已接收 " + upload.received + " bytes");
+            }
+            if (offset < upload.received) {
+                upload.digest = null; // 重送已接收的內容，完成時重新計算整個文件的 SHA-256
+            }
+            long position = offset;
+            try (FileChannel channel = FileChannel.open(upload.file, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                byte[] array = buffer.array();
+                int read;
+                while ((read = in.read(array, 0, (int) Math.min(array.length, upload.size - position + 1))) != -1) {
+                    if (position + read > upload.size) {
+                        throw new IllegalArgumentException("內容超過宣告的文件大小 " + upload.size + " bytes");
+                    }
+                    buffer.clear().limit(read);
+                    long written = position;
+                    while (buffer.hasRemaining()) {
+                        written += channel.write(buffer, written);
+                    }
+                    if (upload.digest != null) {
+                        upload.digest.update(array, 0, read);
+                    }
+                    position += read;
+                    upload.received = Math.max(upload.received, position);
+                    receivedBytes.addAndGet(read);
+                }
+                channel.force(false);
+            } finally {
+                // 更新描述檔的修改時間，進行中的上傳不會被當作放棄的暫存檔清理
+                Files.setLastModifiedTime(upload.descriptor, FileTime.fromMillis(System.currentTimeMillis()));
+            }
+            return status(upload);
+        }
+    }
+
+    /**
+     * 驗證已接收完整且 SHA-256 相符，返回完成的文件
+     * 驗證後在同一個鎖內將文件改名為新的暫存檔並標記為已完成，之後的寫入不會改變已驗證的內容；
+     * 文件交給 AttachmentStore 保存後呼叫 remove 刪除上傳記錄，保存失敗時呼叫 reopen 恢復上傳；
+     * SHA-256 不符時刪除上傳
+     *
+     * @param id 上傳 ID
+     * @return 完成的文件
+     * @throws IOException 如果讀取或改名文件失敗
+     * @throws NotFoundException 如果上傳不存在
+     * @throws IllegalArgumentException 如果 SHA-256 不符
+     * @throws IllegalStateException 如果尚未接收完整或已經完成
+     */
+    public CompletedUpload complete(String id) throws IOException {
+        Upload upload = get(id);
+        synchronized (upload) {
+            if (upload.completed) {
+                throw new IllegalStateException("上傳已完成");
+            }
+            if (upload.received != upload.size) {
+                throw new IllegalStateException("尚未接收完整，已接收 " + upload.received + " / " + upload.size + " bytes");
+            }
+            // 依序寫入時已在接收過程中計算；重新啟動或重送過內容時重新讀取整個文件
+            MessageDigest digest = upload.digest != null ? upload.digest : digestFile(upload.file);
+            upload.digest = null; // digest() 後狀態已重設，再次完成時重新計算
+            if (!ContentHash.toHex(digest.digest()).equals(upload.sha256)) {
+                remove(id);
+                throw new IllegalArgumentException("SHA-256 不符，請重新上傳");
+            }
+            // 同一個目錄內改名，只有這次完成持有新的文件
+            Path verified = Files.createTempFile(directory, "upload-", ".tmp");
+            Files.move(upload.file, verified, StandardCopyOption.REPLACE_EXISTING);
+            upload.completed = true;
+            completedCount.incrementAndGet();
+            return new CompletedUpload(verified, upload.fileName, upload.sha256, upload.size);
+        }
+    }
+
+    /**
+     * 完成的文件未能保存時恢復上傳，用戶端可以再次完成而不需要重新上傳
+     * 文件已被 AttachmentStore 搬移或刪除時刪除上傳記錄
+     *
+     * @param id        上傳 ID
+     * @param completed complete 返回的文件
+     * @throws IOException 如果改名或刪除文件失敗
+     */
+    public void reopen(String id, CompletedUpload completed) throws IOException {
+        Upload upload = uploads.get(id);
+        if (upload == null) {
+            Files.deleteIfExists(completed.getFile());
+            return;
+        }
+        synchronized (upload) {
+            if (!upload.completed) {
+                return;
+            }
+            if (!Files.exists(completed.getFile())) {
+                remove(id);
+                return;
+            }
+            Files.move(completed.getFile(), upload.file, StandardCopyOption.REPLACE_EXISTING);
+            upload.digest = null; // 再次完成時重新計算
+            upload.completed = false;
+        }
+    }
+
+    /**
+     * 刪除上傳記錄與尚未保存的文件
+     *
+     * @param id 上傳 ID
+     * @throws IOException 如果刪除文件失敗
+     */
+    public void remove(String id) throws IOException {
+        Upload upload = uploads.remove(id);
+        if (upload == null) {
+            if (!UPLOAD_ID.matcher(id).matches()) {
+                return;
+            }
+            upload = new Upload(id, null, 0, null);
+        }
+        Files.deleteIfExists(upload.file);
+        Files.deleteIfExists(upload.descriptor);
+    }
+
+    public long getReceivedBytes() {
+        return receivedBytes.get();
+    }
+
+    public long getCompletedCount() {
+        return completedCount.get();
+    }
+
+    /**
+     * 取得上傳，重新啟動後從描述檔載入，已接收的大小以文件大小為準
+     */
+    private Upload get(String id) throws IOException {
+        Upload upload = uploads.get(id);
+        if (upload != null) {
+            return upload;
+        }
+        if (id == null || !UPLOAD_ID.matcher(id).matches()) {
+            throw new NotFoundException("上傳不存在: " + id);
+        }
+        Upload probe = new Upload(id, null, 0, null);
+        Properties descriptor = new Properties();
+        try (Reader in = Files.newBufferedReader(probe.descriptor, StandardCharsets.UTF_8)) {
+            descriptor.load(in);
+        } catch (NoSuchFileException e) {
+            throw new NotFoundException("上傳不存在: " + id);
+        }
+        Upload loaded = new Upload(id, descriptor.getProperty("fileName"),
+                Long.parseLong(descriptor.getProperty("size")), descriptor.getProperty("sha256"));
+        try {
+            loaded.received = Files.size(loaded.file);
+        } catch (NoSuchFileException e) {
+            throw new NotFoundException("上傳不存在: " + id);
+        }
+        Upload existing = uploads.putIfAbsent(id, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private UploadStatus status(Upload upload) {
+        UploadStatus status = new UploadStatus();
+        status.setId(upload.id);
+        status.setFileName(upload.fileName);
+        status.setSize(upload.size);
+        synchronized (upload) {
+            status.setOffset(upload.received);
+        }
+        status.setChunkSize(chunkSize);
+        return status;
+    }
+
+    private static MessageDigest digestFile(Path file) throws IOException {
+        MessageDigest digest = ContentHash.newDigest();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return digest;
+    }
+
+    /**
+     * 一個進行中的上傳，寫入時以物件本身同步
+     */
+    private final class Upload {
+
+        private final String id;
+
+        private final String fileName;
+
+        private final long size;
+
+        private final String sha256;
+
+        private final Path file; // 上傳中的文件
+
+        private final Path descriptor; // 描述檔（文件名稱、大小、SHA-256）
+
+        private long received; // 從文件開頭連續接收的大小
+
+        private MessageDigest digest; // 依序接收時累計的 SHA-256，null 表示完成時重新計算
+
+        private boolean completed; // 已驗證並交出文件，不再接受寫入
+
+        private Upload(String id, String fileName, long size, String sha256) {
+            this.id = id;
+            this.fileName = fileName;
+            this.size = size;
+            this.sha256 = sha256;
+            this.file = directory.resolve(PREFIX + id + ".part");
+            this.descriptor = directory.resolve(PREFIX + id + ".properties");
+        }
+    }
+
+    /**
+     * 驗證完成的上傳
+     */
+    public static final class CompletedUpload {
+
+        private final Path file;
+
+        private final String fileName;
+
+        private final String sha256; // 已驗證的 SHA-256，保存時不需要重新計算
+
+        private final long size;
+
+        private CompletedUpload(Path file, String fileName, String sha256, long size) {
+            this.file = file;
+            this.fileName = fileName;
+            this.sha256 = sha256;
+            this.size = size;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        public long getSize() {
+            return size;
+        }
+    }
+}
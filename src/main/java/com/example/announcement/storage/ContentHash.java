@@ -0,0 +1,62 @@
+package com.example.announcement.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * ContentHash 提供內容定址使用的 SHA-256 計算，結果為小寫十六進位字串。
+ * 附件、內嵌圖片、縮圖與 HTML 清理快取共用同一個實作。
+ */
+public final class ContentHash {
+
+    private ContentHash() {
+    }
+
+    /**
+     * 建立 SHA-256 計算器，供串流內容分段計算
+     *
+     * @return 新的 MessageDigest
+     */
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // 所有 JRE 都必須支援 SHA-256
+        }
+    }
+
+    /**
+     * 計算位元組內容的 SHA-256
+     *
+     * @param data 內容
+     * @return 十六進位雜湊
+     */
+    public static String sha256Hex(byte[] data) {
+        return toHex(newDigest().digest(data));
+    }
+
+    /**
+     * 計算字串（UTF-8）的 SHA-256
+     *
+     * @param value 字串
+     * @return 十六進位雜湊
+     */
+    public static String sha256Hex(String value) {
+        return sha256Hex(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 轉為小寫十六進位字串
+     *
+     * @param bytes 雜湊值
+     * @return 十六進位字串
+     */
+    public static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,456 @@
+package com.example.announcement.storage;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * ImageDerivativeStore 在第一次請求時產生圖片附件的縮圖（指定寬度，等比例縮小並重新壓縮），
+ * 保存在上傳目錄下的 derivatives/，之後的請求直接輸出文件。
+ * 縮圖以附件的 ETag 與寬度命名，附件內容改變時使用新的縮圖；目錄總大小超過上限時刪除最久未使用的縮圖，
+ * 原附件被刪除後遺留的縮圖也由此淘汰（孤兒附件清理不處理這個目錄）。
+ * 同一個縮圖同時被多個請求第一次讀取時只產生一次，其他請求等待結果。
+ */
+@Component
+public class ImageDerivativeStore implements InitializingBean {
+
+    private static final String DIRECTORY = "derivatives";
+
+    private static final String TEMP_PREFIX = ".tmp-";
+
+    @Autowired
+    private String uploadDirectory; // 上傳文件的目錄路徑
+
+    @Value("${attachment.derivative.widths:200,800}")
+    private String widthList; // 允許的縮圖寬度（像素），以逗號分隔
+
+    @Value("${attachment.derivative.max-bytes:536870912}")
+    private long maxBytes; // 縮圖目錄的大小上限
+
+    @Value("${attachment.derivative.jpeg-quality:0.8}")
+    private float jpegQuality; // JPEG 壓縮品質（0 ~ 1）
+
+    @Value("${attachment.derivative.max-source-pixels:40000000}")
+    private long maxSourcePixels; // 原圖像素上限，超過時不產生縮圖，避免解碼耗盡記憶體
+
+    @Value("${attachment.derivative.render-concurrency:2}")
+    private int renderConcurrency; // 同時產生縮圖的上限
+
+    private Path directory; // 縮圖目錄
+
+    private Set<Integer> widths;
+
+    private Semaphore renderPermits;
+
+    /**
+     * 縮圖名稱（不含副檔名）-> 文件，依存取順序排列，最久未使用的在前面
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalBytes; // 縮圖目錄的大小，由 entries 的鎖保護
+
+    /**
+     * 產生中的縮圖，同一個縮圖的其他請求等待同一個結果
+     */
+    private final Map<String, CompletableFuture<Derivative>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong(); // 直接使用已產生縮圖的次數
+
+    private final AtomicLong renderCount = new AtomicLong(); // 產生縮圖的次數
+
+    private final AtomicLong renderNanos = new AtomicLong(); // 產生縮圖的累計耗時
+
+    private final AtomicLong collapsedCount = new AtomicLong(); // 等待其他請求產生同一個縮圖的次數
+
+    private final AtomicLong evictedCount = new AtomicLong(); // 因超過大小上限而刪除的縮圖數
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        directory = Paths.get(uploadDirectory).toAbsolutePath().normalize().resolve(DIRECTORY);
+        Files.createDirectories(directory);
+        widths = new TreeSet<>();
+        for (String width : widthList.split(",")) {
+            widths.add(Integer.parseInt(width.trim()));
+        }
+        renderPermits = new Semaphore(renderConcurrency);
+        ImageIO.setUseCache(false); // 在記憶體中處理圖片，不在暫存目錄建立快取檔
+        loadEntries();
+    }
+
+    /**
+     * 是否為允許的縮圖寬度（只產生設定的寬度，避免任意寬度佔滿磁碟）
+     *
+     * @param width 寬度（像素）
+     * @return 是否允許
+     */
+    public boolean isSupportedWidth(int width) {
+        return widths.contains(width);
+    }
+
+    /**
+     * 取得附件的縮圖，第一次請求時產生
+     *
+     * @param source 附件文件
+     * @param etag   附件的 ETag，內容改變時必須不同
+     * @param width  縮圖寬度，原圖較窄時不放大
+     * @return 縮圖，附件不是可解碼的圖片或像素超過上限時返回 null
+     * @throws IOException 如果讀取附件或寫入縮圖失敗
+     */
+    public Derivative get(Path source, String etag, int width) throws IOException {
+        if (!isSupportedWidth(width)) {
+            throw new IllegalArgumentException("不支援的縮圖寬度: " + width);
+        }
+        String name = ContentHash.sha256Hex(etag) + "-w" + width;
+        Derivative cached = lookup(name);
+        if (cached != null) {
+            hitCount.incrementAndGet();
+            return cached;
+        }
+
+        CompletableFuture<Derivative> flight = new CompletableFuture<>();
+        CompletableFuture<Derivative> existing = inFlight.putIfAbsent(name, flight);
+        if (existing != null) {
+            collapsedCount.incrementAndGet();
+            return await(existing);
+        }
+        try {
+            Derivative derivative = lookup(name); // 另一個請求可能在檢查後剛產生完成
+            if (derivative == null) {
+                derivative = render(source, name, width);
+            }
+            flight.complete(derivative);
+            return derivative;
+        } catch (IOException | RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(name, flight);
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getRenderCount() {
+        return renderCount.get();
+    }
+
+    public long getRenderNanos() {
+        return renderNanos.get();
+    }
+
+    public long getCollapsedCount() {
+        return collapsedCount.get();
+    }
+
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    public long getTotalBytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+
+    /**
+     * 查詢已產生的縮圖，並更新最近使用順序
+     */
+    private Derivative lookup(String name) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(name);
+        }
+        if (entry == null) {
+            return null;
+        }
+        if (!Files.isRegularFile(entry.file)) {
+            remove(name, entry); // 文件已被手動刪除，重新產生
+            return null;
+        }
+        return entry.toDerivative(name);
+    }
+
+    /**
+     * 解碼原圖、縮小並寫入縮圖目錄
+     */
+    private Derivative render(Path source, String name, int width) throws IOException {
+        try {
+            renderPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待產生縮圖時被中斷");
+        }
+        long start = System.nanoTime();
+        try {
+            BufferedImage image = read(source, width);
+            if (image == null) {
+                return null;
+            }
+            boolean alpha = image.getColorModel().hasAlpha();
+            BufferedImage scaled = scale(image, Math.min(width, image.getWidth()), alpha);
+            Entry entry = write(scaled, name, alpha);
+            renderCount.incrementAndGet();
+            add(name, entry);
+            return entry.toDerivative(name);
+        } finally {
+            renderNanos.addAndGet(System.nanoTime() - start);
+            renderPermits.release();
+        }
+    }
+
+    /**
+     * 讀取原圖。先只讀取尺寸，再以抽樣解碼到目標寬度的兩倍左右，大圖不需要完整解碼到記憶體
+     *
+     * @return 圖片，不是可解碼的圖片或像素超過上限時返回 null
+     */
+    private BufferedImage read(Path source, int width) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                if ((long) sourceWidth * sourceHeight > maxSourcePixels) {
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, sourceWidth / (width * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } catch (IIOException e) {
+                return null; // 不支援的色彩空間（例如 CMYK JPEG）或內容損毀
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 等比例縮小，每次最多縮小一半，避免一次大幅縮小產生鋸齒
+     */
+    private static BufferedImage scale(BufferedImage image, int width, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = image;
+        do {
+            int nextWidth = Math.max(width, current.getWidth() / 2);
+            int nextHeight = Math.max(1, (int) Math.round((double) image.getHeight() * nextWidth / image.getWidth()));
+            BufferedImage next = new BufferedImage(nextWidth, nextHeight, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, nextWidth, nextHeight, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (current.getWidth() > width);
+        return current;
+    }
+
+    /**
+     * 寫入暫存檔後原子搬移，其他請求不會讀到寫到一半的縮圖。有透明度的圖片保存為 PNG，其他為 JPEG
+     */
+    private Entry write(BufferedImage image, String name, boolean alpha) throws IOException {
+        String format = alpha ? "png" : "jpg";
+        Path target = directory.resolve(name + "." + format);
+        Path temp = Files.createTempFile(directory, TEMP_PREFIX, "." + format);
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName(alpha ? "png" : "jpeg").next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                if (!alpha) {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    param.setCompressionQuality(jpegQuality);
+                }
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return new Entry(target, Files.size(target));
+    }
+
+    /**
+     * 加入縮圖，超過大小上限時刪除最久未使用的縮圖
+     */
+    private void add(String name, Entry entry) {
+        List<Path> evicted = new ArrayList<>();
+        synchronized (entries) {
+            Entry previous = entries.put(name, entry);
+            totalBytes += entry.size - (previous == null ? 0 : previous.size);
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && entries.size() > 1 && eldest.hasNext()) {
+                Entry victim = eldest.next().getValue();
+                eldest.remove();
+                totalBytes -= victim.size;
+                evicted.add(victim.file);
+            }
+        }
+        for (Path file : evicted) {
+            try {
+                Files.deleteIfExists(file);
+                evictedCount.incrementAndGet();
+            } catch (IOException e) {
+                System.err.println("刪除縮圖失敗: " + file + "（" + e.getMessage() + "）");
+            }
+        }
+    }
+
+    private void remove(String name, Entry entry) {
+        synchronized (entries) {
+            if (entries.remove(name, entry)) {
+                totalBytes -= entry.size;
+            }
+        }
+    }
+
+    /**
+     * 啟動時載入已產生的縮圖，依修改時間排列最近使用順序，並刪除寫入中斷遺留的暫存檔
+     */
+    private void loadEntries() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        List<Path> derivatives = new ArrayList<>();
+        for (Path file : files) {
+            if (file.getFileName().toString().startsWith(TEMP_PREFIX)) {
+                Files.deleteIfExists(file);
+            } else {
+                derivatives.add(file);
+            }
+        }
+        derivatives.sort(Comparator.comparing(ImageDerivativeStore::lastModified));
+        for (Path file : derivatives) {
+            String fileName = file.getFileName().toString();
+            int dot = fileName.lastIndexOf('.');
+            if (dot > 0) {
+                add(fileName.substring(0, dot), new Entry(file, Files.size(file)));
+            }
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static Derivative await(CompletableFuture<Derivative> flight) throws IOException {
+        try {
+            return flight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待產生縮圖時被中斷");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static final class Entry {
+
+        private final Path file;
+
+        private final long size;
+
+        private Entry(Path file, long size) {
+            this.file = file;
+            this.size = size;
+        }
+
+        private Derivative toDerivative(String name) {
+            String contentType = file.getFileName().toString().endsWith(".png") ? "image/png" : "image/jpeg";
+            return new Derivative(file, "\"" + name + "\"", contentType);
+        }
+    }
+
+    /**
+     * 已產生的縮圖
+     */
+    public static final class Derivative {
+
+        private final Path file;
+
+        private final String etag;
+
+        private final String contentType;
+
+        private Derivative(Path file, String etag, String contentType) {
+            this.file = file;
+            this.etag = etag;
+            this.contentType = contentType;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.announcement.storage;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.ServletContext;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * InlineImageStore 保存從公告內容中抽出的內嵌圖片（data URI）。
+ * 檔案以內容的 SHA-256 命名，相同圖片只保存一次，並可由瀏覽器長期快取。
+ */
+@Component
+public class InlineImageStore implements InitializingBean {
+
+    /**
+     * 內嵌圖片對外的 URL 路徑（不含 context path）
+     */
+    public static final String URL_PATH = "/media/inline/";
+
+    /**
+     * 允許抽出的圖片類型與對應的副檔名
+     */
+    private static final Map<String, String> EXTENSIONS = new HashMap<>();
+
+    static {
+        EXTENSIONS.put("image/jpeg", "jpg");
+        EXTENSIONS.put("image/jpg", "jpg");
+        EXTENSIONS.put("image/png", "png");
+        EXTENSIONS.put("image/gif", "gif");
+        EXTENSIONS.put("image/webp", "webp");
+        EXTENSIONS.put("image/bmp", "bmp");
+    }
+
+    @Autowired
+    private String uploadDirectory; // 上傳文件的目錄路徑
+
+    @Autowired(required = false)
+    private ServletContext servletContext; // 用於取得 context path，非 Web 環境下為 null
+
+    private Path directory; // 內嵌圖片的保存目錄
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        directory = Paths.get(uploadDirectory, "inline");
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * 獲取內嵌圖片的保存目錄
+     *
+     * @return 保存目錄
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * 判斷圖片類型是否允許抽出
+     *
+     * @param mimeType 圖片的 MIME 類型
+     * @return 是否允許
+     */
+    public boolean supports(String mimeType) {
+        return mimeType != null && EXTENSIONS.containsKey(mimeType.toLowerCase());
+    }
+
+    /**
+     * 保存圖片，相同內容只會寫入一次
+     *
+     * @param mimeType 圖片的 MIME 類型
+     * @param data     圖片內容
+     * @return 保存的文件名稱（SHA-256 + 副檔名）
+     * @throws IOException 如果文件保存過程中發生錯誤
+     */
+    public String store(String mimeType, byte[] data) throws IOException {
+        String extension = EXTENSIONS.get(mimeType.toLowerCase());
+        if (extension == null) {
+            throw new IllegalArgumentException("不支援的圖片類型: " + mimeType);
+        }
+
+        String fileName = ContentHash.sha256Hex(data) + "." + extension;
+        Path target = directory.resolve(fileName);
+        if (Files.exists(target)) {
+            // 已存在相同內容的圖片，直接重用；更新修改時間，讓孤兒附件清理在保留期內不會處理剛被引用的圖片
+            Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+            return fileName;
+        }
+
+        // 先寫入暫存檔再原子搬移，避免其他請求讀到寫到一半的檔案
+        Path temp = Files.createTempFile(directory, ".inline-", ".tmp");
+        try {
+            Files.write(temp, data);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // 其他請求同時保存了相同內容的圖片，結果相同，忽略即可
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return fileName;
+    }
+
+    /**
+     * 獲取圖片對外的 URL
+     *
+     * @param fileName 保存的文件名稱
+     * @return 圖片 URL
+     */
+    public String urlFor(String fileName) {
+        String contextPath = servletContext != null ? servletContext.getContextPath() : "";
+        return contextPath + URL_PATH + fileName;
+    }
+}
@@ -0,0 +1,363 @@
+package com.example.announcement.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.announcement.dao.AttachmentBlobDAO;
+
+/**
+ * LocalAttachmentStore 將附件保存在本機文件系統。
+ * 上傳內容一邊計算 SHA-256 一邊寫入暫存檔，再原子搬移到以雜湊分層的目錄（blobs/ab/cd/雜湊），
+ * 相同內容只保存一份。附件鍵格式為「雜湊_原始文件名稱」。
+ * 舊版以「時間戳_原始文件名稱」直接保存在上傳目錄的附件仍可讀取與刪除。
+ */
+@Component
+public class LocalAttachmentStore implements AttachmentStore, InitializingBean {
+
+	private static final Pattern HASHED_KEY = Pattern.compile("^[0-9a-f]{64}_.+");
+
+	private static final Pattern HASH = Pattern.compile("^[0-9a-f]{64}$");
+
+	private static final int HASH_LENGTH = 64;
+
+	@Autowired
+	private String uploadDirectory; // 上傳文件的目錄路徑
+
+	@Autowired
+	private AttachmentBlobDAO attachmentBlobDAO;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private Path baseDirectory; // 上傳目錄（舊版附件）
+
+	private Path blobDirectory; // 以雜湊分層的附件目錄
+
+	private Path tempDirectory; // 上傳暫存目錄
+
+	private final AtomicLong storeCount = new AtomicLong(); // 保存附件次數
+
+	private final AtomicLong storeNanos = new AtomicLong(); // 保存附件的累計耗時（計算雜湊並寫入磁碟）
+
+	private final AtomicLong storedBytes = new AtomicLong(); // 保存的附件累計大小
+
+	@Override
+	public void afterPropertiesSet() throws IOException {
+		baseDirectory = Paths.get(uploadDirectory).toAbsolutePath().normalize();
+		blobDirectory = baseDirectory.resolve("blobs");
+		tempDirectory = baseDirectory.resolve(".tmp");
+		Files.createDirectories(blobDirectory);
+		Files.createDirectories(tempDirectory);
+	}
+
+	@Override
+	public String store(MultipartFile file) throws IOException {
+		long start = System.nanoTime();
+		String originalName = toSimpleName(file.getOriginalFilename());
+
+		// 1. 串流寫入暫存檔，同時計算 SHA-256
+		MessageDigest digest = ContentHash.newDigest();
+		Path temp = Files.createTempFile(tempDirectory, "upload-", ".tmp");
+		long size;
+		try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+			size = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+		return storeTemp(temp, ContentHash.toHex(digest.digest()), size, originalName, start);
+	}
+
+	@Override
+	public String store(Path file, String originalName) throws IOException {
+		long start = System.nanoTime();
+		String name = toSimpleName(originalName);
+
+		// 1. 先搬移到暫存目錄（同一個文件系統，之後可原子搬移），再串流計算 SHA-256
+		Path temp = moveToTemp(file);
+		MessageDigest digest = ContentHash.newDigest();
+		long size;
+		try (InputStream in = new DigestInputStream(Files.newInputStream(temp), digest)) {
+			byte[] buffer = new byte[64 * 1024];
+			size = 0;
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				size += read;
+			}
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+		return storeTemp(temp, ContentHash.toHex(digest.digest()), size, name, start);
+	}
+
+	@Override
+	public String store(Path file, String originalName, String sha256, long size) throws IOException {
+		long start = System.nanoTime();
+		if (sha256 == null || !HASH.matcher(sha256).matches()) {
+			throw new IllegalArgumentException("無效的 SHA-256: " + sha256);
+		}
+		// 雜湊已在接收時驗證，直接使用，不再讀取整個文件
+		return storeTemp(moveToTemp(file), sha256, size, toSimpleName(originalName), start);
+	}
+
+	/**
+	 * 文件不在暫存目錄時搬移到暫存目錄，與雜湊目錄在同一個文件系統，之後可原子搬移
+	 *
+	 * @param file 文件
+	 * @return 暫存目錄中的文件
+	 * @throws IOException 如果搬移文件失敗
+	 */
+	private Path moveToTemp(Path file) throws IOException {
+		if (tempDirectory.equals(file.toAbsolutePath().normalize().getParent())) {
+			return file;
+		}
+		Path temp = Files.createTempFile(tempDirectory, "upload-", ".tmp");
+		Files.move(file, temp, StandardCopyOption.REPLACE_EXISTING);
+		return temp;
+	}
+
+	/**
+	 * 增加引用，並將暫存檔搬移到雜湊路徑（已存在相同內容則丟棄暫存檔）。
+	 * 先增加引用再處理文件：引用記錄的行鎖保持到交易結束，同時進行的刪除會等待提交後再確認引用數
+	 *
+	 * @param temp         暫存目錄中的文件
+	 * @param hash         文件內容的 SHA-256
+	 * @param size         文件大小
+	 * @param originalName 原始文件名稱
+	 * @param start        開始保存的時間（System.nanoTime），用於統計耗時
+	 * @return 附件鍵
+	 * @throws IOException 如果搬移文件失敗
+	 */
+	private String storeTemp(Path temp, String hash, long size, String originalName, long start) throws IOException {
+		try {
+			attachmentBlobDAO.acquire(hash, size);
+			Path target = blobPath(hash);
+			if (Files.exists(target)) {
+				Files.delete(temp);
+			} else {
+				Files.createDirectories(target.getParent());
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+			}
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+
+		storeCount.incrementAndGet();
+		storeNanos.addAndGet(System.nanoTime() - start);
+		storedBytes.addAndGet(size);
+		return hash + "_" + originalName;
+	}
+
+	@Override
+	public Path resolve(String key) {
+		Path file = isHashedKey(key) ? blobPath(key.substring(0, HASH_LENGTH)) : legacyPath(key);
+		return file != null && Files.isRegularFile(file) ? file : null;
+	}
+
+	@Override
+	public String etag(String key) throws IOException {
+		if (isHashedKey(key)) {
+			return "\"" + key.substring(0, HASH_LENGTH) + "\"";
+		}
+		Path file = resolve(key);
+		if (file == null) {
+			return null;
+		}
+		// 舊版附件沒有內容雜湊，以文件大小與修改時間代替
+		return "\"" + Long.toHexString(Files.size(file)) + "-"
+				+ Long.toHexString(Files.getLastModifiedTime(file).toMillis()) + "\"";
+	}
+
+	@Override
+	public void release(String key) {
+		if (key == null || key.isEmpty()) {
+			return;
+		}
+
+		if (!isHashedKey(key)) {
+			// 舊版附件每次上傳都是獨立文件，直接刪除
+			Path file = legacyPath(key);
+			if (file != null) {
+				runAfterCommit(() -> deleteQuietly(file));
+			}
+			return;
+		}
+
+		// 提交後才在獨立的交易中減少引用：交易中只持有新附件的記錄鎖，交叉替換附件的兩個交易不會互相等待。
+		// 提交後到釋放之間程序中止時引用數會多一，文件不會被刪除，只多佔磁碟空間
+		String hash = key.substring(0, HASH_LENGTH);
+		runAfterCommit(() -> releaseReference(hash));
+	}
+
+	public long getStoreCount() {
+		return storeCount.get();
+	}
+
+	public long getStoreNanos() {
+		return storeNanos.get();
+	}
+
+	public long getStoredBytes() {
+		return storedBytes.get();
+	}
+
+	/**
+	 * 在新交易中減少引用，引用數歸零時在同一個交易中刪除文件。
+	 * 減少引用的 UPDATE 取得記錄的行鎖，同時保存相同內容的交易會等待刪除完成後重新建立文件
+	 *
+	 * @param hash 文件內容的 SHA-256
+	 */
+	private void releaseReference(String hash) {
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		try {
+			template.execute(status -> {
+				if (attachmentBlobDAO.release(hash) == 0) {
+					deleteQuietly(blobPath(hash));
+				}
+				return null;
+			});
+		} catch (RuntimeException e) {
+			// 原交易已提交，失敗時引用數多一，文件留在磁碟上
+			System.err.println("釋放附件引用失敗: " + hash);
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * 在新交易中以 SELECT ... FOR UPDATE 鎖定引用記錄，確認沒有引用後刪除記錄並交由 disposer 處理（刪除或移到隔離目錄）。
+	 * 同一個文件的保存會等待這個交易結束，不會處理剛被重新引用的文件。供孤兒附件清理使用
+	 *
+	 * @param hash     文件內容的 SHA-256
+	 * @param disposer 處理文件的方式
+	 * @return 是否已處理（仍有引用或文件不存在時返回 false）
+	 * @throws IOException 如果處理文件失敗
+	 */
+	boolean disposeIfUnreferenced(String hash, FileDisposer disposer) throws IOException {
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		try {
+			Boolean disposed = template.execute(status -> {
+				Integer refCount = attachmentBlobDAO.lockRefCount(hash);
+				if (refCount != null && refCount > 0) {
+					return false;
+				}
+				if (refCount != null) {
+					attachmentBlobDAO.delete(hash);
+				}
+				Path file = blobPath(hash);
+				if (!Files.isRegularFile(file)) {
+					return false;
+				}
+				try {
+					disposer.dispose(file);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e); // 回滾記錄的刪除
+				}
+				return true;
+			});
+			return Boolean.TRUE.equals(disposed);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * 在交易提交後執行，沒有交易時立即執行
+	 *
+	 * @param action 要執行的動作
+	 */
+	private void runAfterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+
+	private void deleteQuietly(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			// 刪除失敗的文件留給孤兒附件清理處理
+			System.err.println("刪除文件失敗: " + file);
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * 以雜湊前四碼分兩層目錄，避免單一目錄下文件過多
+	 *
+	 * @param hash 文件內容的 SHA-256
+	 * @return 文件路徑
+	 */
+	private Path blobPath(String hash) {
+		return blobDirectory.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+	}
+
+	/**
+	 * 解析舊版附件路徑，並確保不會跳出上傳目錄
+	 *
+	 * @param key 附件鍵
+	 * @return 文件路徑，附件鍵無效時返回 null
+	 */
+	private Path legacyPath(String key) {
+		Path file = baseDirectory.resolve(key).normalize();
+		return baseDirectory.equals(file.getParent()) ? file : null;
+	}
+
+	private static boolean isHashedKey(String key) {
+		return key != null && HASHED_KEY.matcher(key).matches();
+	}
+
+	/**
+	 * 去掉瀏覽器可能附帶的路徑，只保留文件名稱
+	 *
+	 * @param originalName 原始文件名稱
+	 * @return 文件名稱
+	 */
+	private static String toSimpleName(String originalName) {
+		if (originalName == null || originalName.isEmpty()) {
+			throw new IllegalArgumentException("上傳的文件名稱為空，無法保存");
+		}
+		String name = originalName.substring(Math.max(originalName.lastIndexOf('/'), originalName.lastIndexOf('\\')) + 1);
+		if (name.isEmpty()) {
+			throw new IllegalArgumentException("上傳的文件名稱為空，無法保存");
+		}
+		return name;
+	}
+
+	/**
+	 * 文件的處理方式
+	 */
+	interface FileDisposer {
+
+		void dispose(Path file) throws IOException;
+	}
+}
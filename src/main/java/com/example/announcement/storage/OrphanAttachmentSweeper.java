@@ -0,0 +1,414 @@
+package com.example.announcement.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.announcement.dao.AnnouncementDAO;
+import com.example.announcement.dao.AttachmentBlobDAO;
+import com.example.announcement.datasource.ReadYourWrites;
+import com.example.announcement.dto.SweepResult;
+
+/**
+ * OrphanAttachmentSweeper 定期清理上傳目錄中沒有被引用的文件：
+ * 被替換或回滾後遺留的附件（blobs/ 與舊版附件）、不再出現在公告內容中的內嵌圖片，以及過期的暫存檔。
+ * 目錄以 Files.walk 逐段讀取，每段一次查詢資料庫確認引用，記憶體用量只與每段的文件數有關。
+ * 修改時間在保留期內的文件不處理，避免清理正在保存中的文件；
+ * 孤兒文件預設移到隔離目錄（.quarantine/日期），超過隔離天數後才永久刪除。
+ * 縮圖目錄（derivatives/）由 ImageDerivativeStore 依大小上限自行淘汰，不在清理範圍內。
+ */
+@Component
+public class OrphanAttachmentSweeper implements InitializingBean {
+
+    private static final Pattern BLOB_NAME = Pattern.compile("^[0-9a-f]{64}$");
+
+    /**
+     * 公告內容中內嵌圖片的 URL（前面可能有 context path）
+     */
+    private static final Pattern INLINE_REFERENCE = Pattern
+            .compile(Pattern.quote(InlineImageStore.URL_PATH) + "([0-9a-f]{64}\\.[a-z]+)");
+
+    private static final String QUARANTINE_DIRECTORY = ".quarantine";
+
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    @Autowired
+    private String uploadDirectory; // 上傳文件的目錄路徑
+
+    @Autowired
+    private LocalAttachmentStore attachmentStore;
+
+    @Autowired
+    private AnnouncementDAO announcementDAO;
+
+    @Autowired
+    private AttachmentBlobDAO attachmentBlobDAO;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReadYourWrites readYourWrites; // 確認引用時讀取主庫
+
+    @Value("${attachment.sweep.grace-hours:24}")
+    private long graceHours; // 保留期（小時），修改時間在保留期內的文件不處理
+
+    @Value("${attachment.sweep.chunk-size:500}")
+    private int chunkSize; // 每段處理的文件數
+
+    @Value("${attachment.sweep.mode:quarantine}")
+    private String mode; // quarantine：移到隔離目錄；delete：直接刪除
+
+    @Value("${attachment.sweep.quarantine-retention-days:30}")
+    private int quarantineRetentionDays; // 隔離目錄中的文件保留天數
+
+    private Path baseDirectory; // 上傳目錄（舊版附件）
+
+    private Path quarantineDirectory; // 隔離目錄
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final AtomicLong totalReclaimedBytes = new AtomicLong(); // 啟動以來釋放的磁碟空間
+
+    private volatile SweepResult lastResult; // 最近一次的清理結果
+
+    @Override
+    public void afterPropertiesSet() {
+        baseDirectory = Paths.get(uploadDirectory).toAbsolutePath().normalize();
+        quarantineDirectory = baseDirectory.resolve(QUARANTINE_DIRECTORY);
+    }
+
+    /**
+     * 依排程清理（預設每天凌晨 3:30）
+     */
+    @Scheduled(cron = "${attachment.sweep.cron:0 30 3 * * *}")
+    public void scheduledSweep() {
+        SweepResult result = sweep();
+        if (result != null) {
+            System.out.println("孤兒附件清理完成：孤兒文件 " + result.getOrphanFiles() + " 個（" + result.getOrphanBytes()
+                    + " bytes），釋放 " + result.getReclaimedBytes() + " bytes，耗時 " + result.getElapsedMillis() + " ms");
+        }
+    }
+
+    /**
+     * 清理上傳目錄
+     *
+     * @return 清理結果，已有清理進行中時返回 null
+     */
+    public SweepResult sweep() {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            long start = System.nanoTime();
+            SweepResult result = new SweepResult();
+            result.setMode(isQuarantine() ? "quarantine" : "delete");
+            Instant cutoff = Instant.now().minus(graceHours, ChronoUnit.HOURS);
+
+            // 內嵌圖片的引用需要掃描公告內容，先建立完整的引用集合
+            Set<String> inlineReferences = loadInlineReferences();
+
+            sweepDirectory(baseDirectory, 1, cutoff, result, this::sweepLegacyFiles);
+            sweepDirectory(baseDirectory.resolve("blobs"), Integer.MAX_VALUE, cutoff, result, this::sweepBlobs);
+            sweepDirectory(baseDirectory.resolve("inline"), 1, cutoff, result,
+                    (files, r) -> sweepInlineImages(files, inlineReferences, cutoff, r));
+            sweepDirectory(baseDirectory.resolve(".tmp"), 1, cutoff, result, this::deleteTempFiles);
+            purgeQuarantine(result);
+
+            result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+            totalReclaimedBytes.addAndGet(result.getReclaimedBytes());
+            lastResult = result;
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 以 key=value 文字輸出最近一次的清理結果
+     *
+     * @return 統計數據
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("running=").append(running.get()).append('\n');
+        sb.append("totalReclaimedBytes=").append(totalReclaimedBytes.get()).append('\n');
+        SweepResult result = lastResult;
+        if (result != null) {
+            sb.append(result.report());
+        }
+        return sb.toString();
+    }
+
+    public long getTotalReclaimedBytes() {
+        return totalReclaimedBytes.get();
+    }
+
+    /**
+     * 逐段走訪目錄，只把超過保留期的文件交給 handler
+     *
+     * @param directory 目錄
+     * @param maxDepth  走訪深度（1 表示只處理目錄下的文件）
+     * @param cutoff    修改時間早於此時間的文件才處理
+     * @param result    清理結果
+     * @param handler   處理一段文件
+     */
+    private void sweepDirectory(Path directory, int maxDepth, Instant cutoff, SweepResult result, ChunkHandler handler) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> stream = Files.walk(directory, maxDepth)) {
+            Iterator<Path> files = stream.filter(Files::isRegularFile).iterator();
+            List<Path> chunk = new ArrayList<>(chunkSize);
+            while (files.hasNext()) {
+                Path file = files.next();
+                result.setScannedFiles(result.getScannedFiles() + 1);
+                if (isOlderThan(file, cutoff)) {
+                    chunk.add(file);
+                }
+                if (chunk.size() >= chunkSize) {
+                    handler.handle(chunk, result);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                handler.handle(chunk, result);
+            }
+        } catch (IOException | RuntimeException e) {
+            // 單一目錄失敗不影響其他目錄
+            System.err.println("清理目錄失敗: " + directory);
+            e.printStackTrace();
+            result.setFailures(result.getFailures() + 1);
+        }
+    }
+
+    /**
+     * 舊版附件（直接保存在上傳目錄）：不再被任何公告引用即為孤兒
+     * 舊版附件不會再新增，不需要與上傳互斥
+     */
+    private void sweepLegacyFiles(List<Path> files, SweepResult result) {
+        List<Path> candidates = files.stream()
+                .filter(file -> !file.getFileName().toString().startsWith("."))
+                .collect(Collectors.toList());
+        Set<String> keys = candidates.stream().map(file -> file.getFileName().toString()).collect(Collectors.toSet());
+        Set<String> referenced = new HashSet<>(query(status -> announcementDAO.getReferencedAttachmentKeys(keys)));
+        for (Path file : candidates) {
+            if (!referenced.contains(file.getFileName().toString())) {
+                disposeOrphan(file, result);
+            }
+        }
+    }
+
+    /**
+     * 以內容雜湊保存的附件：沒有引用記錄即為孤兒，處理前鎖定引用記錄再確認一次
+     */
+    private void sweepBlobs(List<Path> files, SweepResult result) {
+        List<String> hashes = files.stream()
+                .map(file -> file.getFileName().toString())
+                .filter(name -> BLOB_NAME.matcher(name).matches())
+                .collect(Collectors.toList());
+        Set<String> referenced = new HashSet<>(query(status -> attachmentBlobDAO.getReferencedHashes(hashes)));
+        for (String hash : hashes) {
+            if (referenced.contains(hash)) {
+                continue;
+            }
+            try {
+                attachmentStore.disposeIfUnreferenced(hash, file -> disposeOrphan(file, result));
+            } catch (IOException e) {
+                result.setFailures(result.getFailures() + 1);
+            }
+        }
+    }
+
+    /**
+     * 內嵌圖片：不在任何公告內容中即為孤兒
+     * 引用集合建立後才保存的公告可能引用同一張圖片，處理前再查詢一次資料庫確認；
+     * 保存中（尚未提交）的公告查詢不到，但 InlineImageStore 在提交前已更新修改時間，查詢後再確認一次修改時間
+     */
+    private void sweepInlineImages(List<Path> files, Set<String> inlineReferences, Instant cutoff,
+            SweepResult result) {
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.startsWith(".inline-") && name.endsWith(".tmp")) {
+                deleteTempFile(file, result); // 寫入中斷遺留的暫存檔
+            } else if (!inlineReferences.contains(name)
+                    && !Boolean.TRUE.equals(query(status -> announcementDAO.isContentReferencing(name)))
+                    && isOlderThan(file, cutoff)) {
+                disposeOrphan(file, result);
+            }
+        }
+    }
+
+    private void deleteTempFiles(List<Path> files, SweepResult result) {
+        for (Path file : files) {
+            deleteTempFile(file, result);
+        }
+    }
+
+    /**
+     * 逐段掃描公告內容，找出仍被引用的內嵌圖片文件名稱
+     *
+     * @return 內嵌圖片文件名稱
+     */
+    private Set<String> loadInlineReferences() {
+        Set<String> references = new HashSet<>();
+        int lastId = 0;
+        while (true) {
+            int afterId = lastId;
+            List<Object[]> rows = query(status -> announcementDAO.getContentsAfterId(afterId, chunkSize));
+            if (rows.isEmpty()) {
+                return references;
+            }
+            for (Object[] row : rows) {
+                String content = (String) row[1];
+                if (content != null) {
+                    Matcher matcher = INLINE_REFERENCE.matcher(content);
+                    while (matcher.find()) {
+                        references.add(matcher.group(1));
+                    }
+                }
+            }
+            lastId = (Integer) rows.get(rows.size() - 1)[0];
+        }
+    }
+
+    /**
+     * 處理孤兒文件：移到隔離目錄（保留相對路徑）或直接刪除
+     *
+     * @param file   孤兒文件
+     * @param result 清理結果
+     */
+    private void disposeOrphan(Path file, SweepResult result) {
+        try {
+            long size = Files.size(file);
+            if (isQuarantine()) {
+                Path target = quarantineDirectory.resolve(LocalDate.now().format(DAY))
+                        .resolve(baseDirectory.relativize(file));
+                Files.createDirectories(target.getParent());
+                Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.delete(file);
+                result.setReclaimedBytes(result.getReclaimedBytes() + size);
+            }
+            result.setOrphanFiles(result.getOrphanFiles() + 1);
+            result.setOrphanBytes(result.getOrphanBytes() + size);
+        } catch (IOException e) {
+            System.err.println("處理孤兒文件失敗: " + file + "（" + e.getMessage() + "）");
+            result.setFailures(result.getFailures() + 1);
+        }
+    }
+
+    private void deleteTempFile(Path file, SweepResult result) {
+        try {
+            long size = Files.size(file);
+            if (Files.deleteIfExists(file)) {
+                result.setTempFiles(result.getTempFiles() + 1);
+                result.setReclaimedBytes(result.getReclaimedBytes() + size);
+            }
+        } catch (IOException e) {
+            result.setFailures(result.getFailures() + 1);
+        }
+    }
+
+    /**
+     * 永久刪除隔離目錄中超過保留天數的日期目錄
+     *
+     * @param result 清理結果
+     */
+    private void purgeQuarantine(SweepResult result) {
+        if (!Files.isDirectory(quarantineDirectory)) {
+            return;
+        }
+        LocalDate oldest = LocalDate.now().minusDays(quarantineRetentionDays);
+        try (Stream<Path> days = Files.list(quarantineDirectory)) {
+            for (Path day : (Iterable<Path>) days::iterator) {
+                LocalDate date;
+                try {
+                    date = LocalDate.parse(day.getFileName().toString(), DAY);
+                } catch (DateTimeParseException e) {
+                    continue; // 不是隔離日期目錄
+                }
+                if (date.isBefore(oldest)) {
+                    deleteTree(day, result);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("清理隔離目錄失敗: " + e.getMessage());
+            result.setFailures(result.getFailures() + 1);
+        }
+    }
+
+    private void deleteTree(Path directory, SweepResult result) throws IOException {
+        try (Stream<Path> stream = Files.walk(directory)) {
+            // 先刪除子目錄中的文件，再刪除目錄本身
+            for (Path path : (Iterable<Path>) stream.sorted(Comparator.reverseOrder())::iterator) {
+                if (Files.isRegularFile(path)) {
+                    long size = Files.size(path);
+                    Files.delete(path);
+                    result.setPurgedFiles(result.getPurgedFiles() + 1);
+                    result.setReclaimedBytes(result.getReclaimedBytes() + size);
+                } else {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    private boolean isQuarantine() {
+        return !"delete".equalsIgnoreCase(mode);
+    }
+
+    private static boolean isOlderThan(Path file, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            return false; // 文件已被刪除或無法讀取，下次再處理
+        }
+    }
+
+    /**
+     * 以唯讀交易查詢
+     * 查詢結果決定是否刪除文件，讀取主庫，副本落後時會漏掉剛保存的公告
+     */
+    private <T> T query(TransactionCallback<T> callback) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return readYourWrites.onPrimary(() -> template.execute(callback));
+    }
+
+    /**
+     * 處理一段超過保留期的文件
+     */
+    private interface ChunkHandler {
+
+        void handle(List<Path> files, SweepResult result) throws IOException;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.announcement.web;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+/**
+ * FileDownloadSupport 負責將磁碟上的文件直接輸出到 HTTP 回應。
+ * 支援條件式請求（ETag / 304）、單一區段的 Range 請求（206），
+ * 並優先使用 Tomcat 的 sendfile，否則以 FileChannel.transferTo 輸出，不在 heap 上緩衝整個文件。
+ * 只有點陣圖片以 inline 顯示，並一律送出 X-Content-Type-Options: nosniff，避免上傳的 SVG、HTML 在本站的來源下執行腳本。
+ */
+@Component
+public class FileDownloadSupport {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * 以 inline 顯示的類型，其他類型（包括 SVG 與 PDF）一律以附件下載
+     */
+    private static final Set<String> INLINE_TYPES = new HashSet<>(Arrays.asList(
+            "image/jpeg", "image/png", "image/gif", "image/webp", "image/bmp"));
+
+    /**
+     * 輸出文件
+     *
+     * @param request      HTTP 請求
+     * @param response     HTTP 回應
+     * @param file         要輸出的文件
+     * @param etag         強 ETag（含雙引號）
+     * @param contentType  內容類型
+     * @param downloadName 下載時顯示的文件名稱，為 null 時不設定 Content-Disposition
+     * @param cacheControl Cache-Control 標頭
+     * @throws IOException 如果讀取或輸出文件失敗
+     */
+    public void send(HttpServletRequest request, HttpServletResponse response, Path file, String etag,
+            String contentType, String downloadName, String cacheControl) throws IOException {
+        long length = Files.size(file);
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff"); // 不讓瀏覽器依內容猜測類型
+
+        // 1. 條件式請求：內容未改變時返回 304，不輸出內容
+        if (matchesIfNoneMatch(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        // 2. 解析 Range，If-Range 與目前 ETag 不同時忽略 Range，返回完整內容
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] parsed = parseRange(range, length);
+            if (parsed == null) {
+                // 無法滿足的範圍
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (parsed.length == 2) {
+                start = parsed[0];
+                end = parsed[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long contentLength = end - start + 1;
+        response.setContentType(contentType);
+        response.setContentLengthLong(contentLength);
+        if (downloadName != null) {
+            boolean inline = INLINE_TYPES.contains(contentType.toLowerCase(Locale.ROOT));
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.builder(inline ? "inline" : "attachment")
+                            .filename(downloadName, StandardCharsets.UTF_8).build().toString());
+        }
+
+        if ("HEAD".equals(request.getMethod()) || contentLength == 0) {
+            return;
+        }
+
+        // 3. 容器支援 sendfile 時交由容器以零拷貝方式輸出
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        // 4. 否則以 FileChannel.transferTo 直接寫入回應串流
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = contentLength;
+            while (remaining > 0) {
+                long written = channel.transferTo(position, remaining, out);
+                if (written <= 0) {
+                    break; // 文件在輸出期間被截斷
+                }
+                position += written;
+                remaining -= written;
+            }
+        }
+    }
+
+    /**
+     * 判斷 If-None-Match 是否與目前的 ETag 相符（弱比較）
+     *
+     * @param ifNoneMatch If-None-Match 標頭
+     * @param etag        目前的 ETag
+     * @return 是否相符
+     */
+    private static boolean matchesIfNoneMatch(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String target = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*") || stripWeak(candidate).equals(target)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    /**
+     * 解析單一區段的 Range 標頭
+     *
+     * @param header Range 標頭，例如 bytes=0-99、bytes=100-、bytes=-500
+     * @param length 文件大小
+     * @return {start, end}；格式不支援（例如多區段）時返回空陣列表示忽略 Range；範圍無法滿足時返回 null
+     */
+    private static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                // 最後 N 個位元組
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                end = dash == spec.length() - 1 ? length - 1 : Long.parseLong(spec.substring(dash + 1));
+                end = Math.min(end, length - 1);
+            }
+            if (start >= length || start > end) {
+                return null;
+            }
+            return new long[] { start, end };
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.announcement.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * GzipResponseFilter 壓縮超過門檻大小的回應（瀏覽器或用戶端需送出 Accept-Encoding: gzip）。
+ * 回應先寫入緩衝區，超過門檻才切換為 gzip 串流；小於門檻的回應原樣送出並附上 Content-Length，避免為小回應付出壓縮成本。
+ * 非同步處理（startAsync）的回應不壓縮：開始非同步時送出已緩衝的內容，之後直接寫入原始串流，
+ * 非阻塞輸出（setWriteListener）也交給原始串流處理。
+ * 在 web.xml 中註冊（async-supported），門檻以 init-param threshold（位元組）設定。
+ */
+public class GzipResponseFilter extends OncePerRequestFilter {
+
+    private int threshold = 1024; // 壓縮門檻（位元組）
+
+    public void setThreshold(int threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING)) || "HEAD".equals(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        GzipResponse gzipResponse = new GzipResponse(response, threshold);
+        HttpServletRequest gzipRequest = new HttpServletRequestWrapper(request) {
+            @Override
+            public AsyncContext startAsync() throws IllegalStateException {
+                gzipResponse.passThrough();
+                return super.startAsync();
+            }
+
+            @Override
+            public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse)
+                    throws IllegalStateException {
+                gzipResponse.passThrough();
+                return super.startAsync(servletRequest, servletResponse);
+            }
+        };
+        filterChain.doFilter(gzipRequest, gzipResponse);
+        if (!request.isAsyncStarted()) {
+            gzipResponse.finish(); // 非同步處理的回應在結束時由容器送出
+        }
+    }
+
+    /**
+     * 檢查 Accept-Encoding 是否接受 gzip（q=0 表示不接受）
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].trim().replace(" ", "");
+                    if (parameter.matches("q=0(\\.0*)?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 緩衝回應內容，超過門檻時改以 gzip 輸出
+     */
+    private static class GzipResponse extends HttpServletResponseWrapper {
+
+        private final int threshold;
+
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        private OutputStream target; // 超過門檻後的輸出目標（gzip 串流或原始串流）
+
+        private GZIPOutputStream gzip;
+
+        private ServletOutputStream passThrough; // 非同步處理時直接寫入的原始串流
+
+        private ServletOutputStream outputStream;
+
+        private PrintWriter writer;
+
+        GzipResponse(HttpServletResponse response, int threshold) {
+            super(response);
+            this.threshold = threshold;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (writer != null) {
+                throw new IllegalStateException("已呼叫 getWriter()");
+            }
+            return stream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (outputStream != null) {
+                    throw new IllegalStateException("已呼叫 getOutputStream()");
+                }
+                writer = new PrintWriter(new OutputStreamWriter(new OutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        GzipResponse.this.write(new byte[] { (byte) b }, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        GzipResponse.this.write(b, off, len);
+                    }
+                }, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        private ServletOutputStream stream() {
+            if (outputStream == null) {
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        GzipResponse.this.write(new byte[] { (byte) b }, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        GzipResponse.this.write(b, off, len);
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return passThrough == null || passThrough.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        // Servlet 規範只允許在非同步處理中呼叫，startAsync 時已切換為原始串流
+                        if (passThrough == null) {
+                            throw new IllegalStateException("只能在非同步處理中設定 WriteListener");
+                        }
+                        passThrough.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        // 實際長度在 finish() 時才知道，忽略下游設定的 Content-Length
+
+        @Override
+        public void setContentLength(int len) {
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (target != null) {
+                target.flush();
+            } // 未超過門檻前不送出，仍可能改為壓縮
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (target == null) {
+                buffer.reset();
+            }
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            if (target == null) {
+                buffer.reset();
+            }
+        }
+
+        private void write(byte[] b, int off, int len) throws IOException {
+            if (target != null) {
+                target.write(b, off, len);
+                return;
+            }
+            buffer.write(b, off, len);
+            if (buffer.size() > threshold) {
+                startOutput();
+            }
+        }
+
+        /**
+         * 開始非同步處理：不再壓縮，送出已緩衝的內容後直接寫入原始串流
+         * 已開始 gzip 輸出時照常輸出，非阻塞輸出無法經過 gzip 串流，由 setWriteListener 拒絕
+         */
+        void passThrough() {
+            if (target != null) {
+                return;
+            }
+            try {
+                if (writer != null) {
+                    writer.flush();
+                }
+                passThrough = getResponse().getOutputStream();
+                target = passThrough;
+                buffer.writeTo(target);
+                buffer = null;
+            } catch (IOException e) {
+                throw new IllegalStateException("送出緩衝的回應內容失敗", e);
+            }
+        }
+
+        /**
+         * 超過門檻：已有 Content-Encoding 或已送出標頭時不壓縮，否則改為 gzip 串流
+         */
+        private void startOutput() throws IOException {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            if (response.isCommitted() || response.containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+                target = response.getOutputStream();
+            } else {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                gzip = new GZIPOutputStream(response.getOutputStream(), 8192);
+                target = gzip;
+            }
+            buffer.writeTo(target);
+            buffer = null;
+        }
+
+        /**
+         * 請求處理完成後送出剩餘內容
+         */
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (target == null) {
+                if (buffer.size() > 0) {
+                    HttpServletResponse response = (HttpServletResponse) getResponse();
+                    if (!response.isCommitted()) {
+                        response.setContentLength(buffer.size());
+                    }
+                    buffer.writeTo(response.getOutputStream());
+                }
+            } else if (gzip != null) {
+                gzip.finish();
+            }
+            getResponse().flushBuffer();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.announcement.web;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import com.example.announcement.datasource.ReadYourWrites;
+
+/**
+ * ReadYourWritesFilter 讓用戶端寫入後的請求（例如保存後重定向到列表頁）讀取主庫，看得到剛保存的資料。
+ * 寫入交易提交時以 Cookie 記錄讀取主庫的期限，之後的請求帶回 Cookie 時，期限內的唯讀交易讀取主庫。
+ * 由 web.xml 的 DelegatingFilterProxy 委派，Bean 名稱為 readYourWritesFilter。
+ */
+@Component("readYourWritesFilter")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final String COOKIE_NAME = "db-primary-until";
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!readYourWrites.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        readYourWrites.begin(parseCookie(request), primaryUntil -> addCookie(request, response, primaryUntil));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            readYourWrites.end();
+        }
+    }
+
+    private static long parseCookie(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, COOKIE_NAME);
+        if (cookie == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(cookie.getValue());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 寫入交易提交時呼叫，回應尚未送出時設定 Cookie
+     */
+    private void addCookie(HttpServletRequest request, HttpServletResponse response, long primaryUntil) {
+        if (response.isCommitted()) {
+            return;
+        }
+        Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(primaryUntil));
+        cookie.setPath(request.getContextPath().isEmpty() ? "/" : request.getContextPath());
+        cookie.setMaxAge((int) Math.max(1, (readYourWrites.getStickyMillis() + 999) / 1000));
+        cookie.setHttpOnly(true);
+        response.addCookie(cookie);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.announcement.web;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * 將視圖的輸出寫入字串而不是回應，用於把渲染結果保存到快取
+ * 只支援以 Writer 輸出的視圖（例如 Thymeleaf）
+ */
+public class StringCapturingResponse extends HttpServletResponseWrapper {
+
+    private final StringWriter buffer = new StringWriter();
+
+    private final PrintWriter writer = new PrintWriter(buffer);
+
+    public StringCapturingResponse(HttpServletResponse response) {
+        super(response);
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        return writer;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        throw new IllegalStateException("只支援以 Writer 輸出的視圖");
+    }
+
+    @Override
+    public void flushBuffer() {
+        writer.flush(); // 不送出實際的回應
+    }
+
+    /**
+     * 獲取已輸出的內容
+     *
+     * @return 視圖輸出的文字
+     */
+    public String getContent() {
+        writer.flush();
+        return buffer.toString();
+    }
+}
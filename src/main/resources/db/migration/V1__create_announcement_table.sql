@@ -0,0 +1,13 @@
+-- 公告系統改用 Flyway 前的原始表結構（與原版 hbm2ddl update 建立的結構相同）。
+-- 既有資料庫以此版本為基準，不會執行這個腳本；之後的結構變更各自是一個版本。
+
+CREATE TABLE announcement (
+    id          INTEGER      NOT NULL AUTO_INCREMENT,
+    content     LONGTEXT,
+    createdBy   VARCHAR(255),
+    endDate     DATE,
+    publishDate DATE,
+    title       VARCHAR(255),
+    uploadFile1 VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
@@ -0,0 +1,5 @@
+-- 列表排序與游標分頁使用的複合索引
+CREATE INDEX idx_announcement_publish_date_id ON announcement (publishDate, id);
+
+-- 查詢有效公告（尚未截止）使用的複合索引
+CREATE INDEX idx_announcement_end_date_publish_date ON announcement (endDate, publishDate);
@@ -0,0 +1,7 @@
+-- 以內容雜湊保存的附件文件及其引用次數
+CREATE TABLE attachment_blob (
+    hash     VARCHAR(64) NOT NULL,
+    fileSize BIGINT      NOT NULL,
+    refCount INTEGER     NOT NULL,
+    PRIMARY KEY (hash)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
@@ -0,0 +1,12 @@
+-- 公告主鍵的表生成器（取代資料庫自增，可批次寫入）
+CREATE TABLE id_generator (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val      BIGINT,
+    PRIMARY KEY (sequence_name)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+-- 生成器必須從現有最大 ID 之後開始，避免主鍵衝突。
+-- pooled 最佳化器以 next_val 為區段上限，產生 (next_val - 50, next_val] 的 ID（50 為 Announcement.ID_ALLOCATION_SIZE），
+-- 因此 next_val 為「現有最大 ID + 50」。表在上面才建立，不會已有記錄，只用標準 SQL。
+INSERT INTO id_generator (sequence_name, next_val)
+SELECT 'announcement', COALESCE(MAX(id), 0) + 50 FROM announcement;
@@ -0,0 +1,2 @@
+-- 樂觀鎖版本號，既有資料從 0 開始
+ALTER TABLE announcement ADD COLUMN version INTEGER DEFAULT 0 NOT NULL;
@@ -0,0 +1,169 @@
+package com.example.announcement.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.Properties;
+
+import javax.servlet.http.Cookie;
+
+import org.flywaydb.core.Flyway;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.announcement.config.RootConfig;
+import com.example.announcement.model.Announcement;
+import com.example.announcement.service.AnnouncementService;
+import com.example.announcement.web.ReadYourWritesFilter;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * 以兩個內嵌資料庫代替主庫與副本，測試讀寫分離的路由
+ * 副本不同步主庫的寫入，讀到副本時看不到剛保存的公告，由此判斷查詢實際使用的資料庫
+ */
+@SpringJUnitWebConfig(RootConfig.class)
+@TestPropertySource(locations = "classpath:database-h2-replica.properties")
+@DirtiesContext
+class ReplicaRoutingDataSourceTest {
+
+    private static final String PROPERTIES = "/database-h2-replica.properties";
+
+    @Autowired
+    private AnnouncementService service;
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Autowired
+    private ReadYourWritesFilter readYourWritesFilter;
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private HikariDataSource replicaDataSource;
+
+    /**
+     * 副本的表結構（正式環境由複製同步），在建立 Spring 容器之前執行
+     */
+    @BeforeAll
+    static void migrateReplica() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = ReplicaRoutingDataSourceTest.class.getResourceAsStream(PROPERTIES)) {
+            properties.load(in);
+        }
+        Flyway.configure()
+                .dataSource(properties.getProperty("db.replica.url"), properties.getProperty("db.username"),
+                        properties.getProperty("db.password"))
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+    }
+
+    @BeforeEach
+    void clearStickiness() {
+        readYourWrites.end();
+    }
+
+    @Test
+    void readOnlyTransactionUsesReplica() {
+        long replicaBefore = routingDataSource.getReplicaCount();
+
+        assertEquals(0, countInReadOnlyTransaction());
+        assertEquals(replicaBefore + 1, routingDataSource.getReplicaCount());
+    }
+
+    @Test
+    void saveGoesToPrimary() throws IOException {
+        long primaryCount = countIn(primaryDataSource);
+        long replicaCount = countIn(replicaDataSource);
+
+        service.saveAnnouncementWithAttachments(newAnnouncement("寫入主庫"), null);
+
+        assertEquals(primaryCount + 1, countIn(primaryDataSource));
+        assertEquals(replicaCount, countIn(replicaDataSource));
+    }
+
+    @Test
+    void stickyCookiePinsReadsToPrimary() throws Exception {
+        // 第一個請求保存公告，回應設定讀取主庫的 Cookie
+        MockHttpServletRequest saveRequest = new MockHttpServletRequest("POST", "/announcements/save");
+        MockHttpServletResponse saveResponse = new MockHttpServletResponse();
+        readYourWritesFilter.doFilter(saveRequest, saveResponse, (request, response) -> {
+            try {
+                service.saveAnnouncementWithAttachments(newAnnouncement("保存後重定向"), null);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Cookie cookie = saveResponse.getCookie("db-primary-until");
+        assertNotNull(cookie);
+        long primaryCount = countIn(primaryDataSource);
+
+        // 帶 Cookie 的下一個請求讀取主庫，看得到剛保存的公告
+        long[] sticky = new long[1];
+        MockHttpServletRequest listRequest = new MockHttpServletRequest("GET", "/announcements");
+        listRequest.setCookies(cookie);
+        MockHttpServletResponse listResponse = new MockHttpServletResponse();
+        readYourWritesFilter.doFilter(listRequest, listResponse,
+                (request, response) -> sticky[0] = countInReadOnlyTransaction());
+        assertEquals(primaryCount, sticky[0]);
+        assertNull(listResponse.getCookie("db-primary-until")); // 只讀取的請求不延長期限
+
+        // 其他用戶端（沒有 Cookie）讀取副本
+        long[] other = new long[1];
+        readYourWritesFilter.doFilter(new MockHttpServletRequest("GET", "/announcements"),
+                new MockHttpServletResponse(), (request, response) -> other[0] = countInReadOnlyTransaction());
+        assertEquals(countIn(replicaDataSource), other[0]);
+    }
+
+    /**
+     * 以唯讀交易查詢公告數量（原生 SQL，不經過查詢快取）
+     */
+    private long countInReadOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        Number count = template.execute(status -> (Number) sessionFactory.getCurrentSession()
+                .createNativeQuery("SELECT COUNT(*) FROM announcement")
+                .uniqueResult());
+        return count.longValue();
+    }
+
+    private static long countIn(HikariDataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM announcement", Long.class);
+    }
+
+    private static Announcement newAnnouncement(String title) {
+        Announcement announcement = new Announcement();
+        announcement.setTitle(title);
+        announcement.setPublishDate(LocalDate.now());
+        announcement.setEndDate(LocalDate.now().plusDays(7));
+        announcement.setContent("<p>" + title + "</p>");
+        announcement.setCreatedBy("test");
+        return announcement;
+    }
+}